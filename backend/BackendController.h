@@ -5,44 +5,322 @@
 #include <iostream>
 #include <vector>
 #include <utility>
+#include <list>
+#include <memory>
+#include <climits>
+#include <algorithm>
 
 #include "SongDatabase.h"
 #include "SongSearchBST.h"
+#include "SongSearchIndex.h"
 #include "FavoritesManager.h"
 #include "RecentlyPlayedManager.h"
 #include "PlaylistManager.h"
 #include "RecommendationEngine.h"
 #include "UserAuthManager.h"
+#include "UserJournal.h"
 
 using namespace std;
 
+#define MAX_CACHED_SESSIONS 8
+#define RECOMMEND_CACHE_FILE "recommendations.cache"
+#define SONGS_CSV_FILE "C:\\Users\\PMLS\\Desktop\\Music Streaming Platform\\songs.csv"
+
+/*
+ * UserSession
+ * Per-user state: favorites, recently played and playlists.
+ * Changes go to the managers in memory and to the user's journal; the
+ * managers' CSV snapshots are rewritten only when the journal is
+ * compacted (every COMPACT_AFTER changes and when the session closes),
+ * so a session can be dropped from the cache at any time.
+ */
+
+struct UserSession {
+    static const int COMPACT_AFTER = 256;   // journal entries between snapshots
+
+    string userId;
+    FavoritesManager favorites;
+    RecentlyPlayedManager recents;
+    PlaylistManager playlists;
+    UserJournal journal;
+
+    // recommendation signals derived from the above; BackendController
+    // updates them in place after each edit and rebuilds them from
+    // scratch only when signalsStale is set
+    RecommendationEngine::Signals signals;
+    bool signalsStale;
+    int playsSinceRebuild;      // plays linked in place since the last rebuild
+
+    // Song ids one FAV_PAGE / PL_PAGE listing pages through, kept until the
+    // session or the catalog changes so each further page is O(limit)
+    struct PageIds {
+        long long edits = -1;
+        long long catalogBuild = -1;
+        int playlistId = 0;
+        vector<int> ids;
+    };
+    long long edits;            // journaled changes so far
+    PageIds favoritePage;
+    PageIds playlistPage;
+
+    UserSession(const string& id)
+        : userId(id), favorites(id), recents(id), playlists(id),
+          journal("journal_" + id + ".log"), signalsStale(true), playsSinceRebuild(0), edits(0) {
+        recover();
+    }
+
+    ~UserSession() {
+        if (journal.size() > 0)
+            compact();
+    }
+
+    UserSession(const UserSession&) = delete;
+    UserSession& operator=(const UserSession&) = delete;
+
+    void played(int songId) {
+        recents.addSong(songId);
+        record("RP " + to_string(songId));
+    }
+
+    void addFavorite(int songId) {
+        favorites.addFavorite(songId);
+        record("FA " + to_string(songId));
+    }
+
+    void removeFavorite(int songId) {
+        favorites.removeFavorite(songId);
+        record("FR " + to_string(songId));
+    }
+
+    void createPlaylist(int playlistId, const string& name) {
+        playlists.createPlaylist(playlistId, name);
+        record("PC " + to_string(playlistId) + " " + name);
+    }
+
+    void addSongToPlaylist(int playlistId, int songId) {
+        playlists.addSongToPlaylist(playlistId, songId);
+        record("PA " + to_string(playlistId) + " " + to_string(songId));
+    }
+
+    void removeSongFromPlaylist(int playlistId, int songId) {
+        playlists.removeSongFromPlaylist(playlistId, songId);
+        record("PR " + to_string(playlistId) + " " + to_string(songId));
+    }
+
+    // Batch edits: every change is applied, then journaled in one write
+
+    void addFavorites(const vector<int>& songIds) {
+        vector<string> changes;
+        for (int songId : songIds) {
+            favorites.addFavorite(songId);
+            changes.push_back("FA " + to_string(songId));
+        }
+        record(changes);
+    }
+
+    void removeFavorites(const vector<int>& songIds) {
+        vector<string> changes;
+        for (int songId : songIds) {
+            favorites.removeFavorite(songId);
+            changes.push_back("FR " + to_string(songId));
+        }
+        record(changes);
+    }
+
+    void addSongsToPlaylist(int playlistId, const vector<int>& songIds) {
+        vector<string> changes;
+        for (int songId : songIds) {
+            playlists.addSongToPlaylist(playlistId, songId);
+            changes.push_back("PA " + to_string(playlistId) + " " + to_string(songId));
+        }
+        record(changes);
+    }
+
+private:
+    void record(const string& change) {
+        record(vector<string>{change});
+    }
+
+    void record(const vector<string>& changes) {
+        if (changes.empty()) return;
+        journal.append(changes);
+        edits++;
+        if (journal.size() >= COMPACT_AFTER)
+            compact();
+    }
+
+    // Snapshots take everything so far, then the journal starts empty.
+    // If any snapshot could not be written the journal is kept: it is
+    // the only durable copy of those changes, and the next compaction
+    // tries again.
+    void compact() {
+        long long seq = journal.lastSeq();
+        bool saved = favorites.saveToCSV(seq);
+        saved = recents.saveToCSV(seq) && saved;
+        saved = playlists.savePlaylists(seq) && saved;
+        saved = playlists.savePlaylistSongs(seq) && saved;
+        if (saved) {
+            journal.reset();
+        } else {
+            cerr << "Could not write snapshots for " << userId << "; keeping the journal" << endl;
+        }
+    }
+
+    // Re-applies journal entries newer than each snapshot after a crash
+    void recover() {
+        long long favSeq = favorites.getSnapshotSeq();
+        long long recentSeq = recents.getSnapshotSeq();
+        long long listSeq = playlists.getPlaylistsSnapshotSeq();
+        long long songsSeq = playlists.getSongsSnapshotSeq();
+        long long newest = max(max(favSeq, recentSeq), max(listSeq, songsSeq));
+
+        int replayed = journal.replay(newest, [&](long long seq, const string& op, istream& args) {
+            int a = 0, b = 0;
+            if (op == "FA" && seq > favSeq && (args >> a)) favorites.addFavorite(a);
+            else if (op == "FR" && seq > favSeq && (args >> a)) favorites.removeFavorite(a);
+            else if (op == "RP" && seq > recentSeq && (args >> a)) recents.addSong(a);
+            else if (op == "PC" && seq > listSeq && (args >> a)) {
+                string name;
+                args.get();
+                getline(args, name);
+                playlists.createPlaylist(a, name);
+            }
+            else if (op == "PA" && seq > songsSeq && (args >> a >> b)) playlists.addSongToPlaylist(a, b);
+            else if (op == "PR" && seq > songsSeq && (args >> a >> b)) playlists.removeSongFromPlaylist(a, b);
+        });
+
+        if (replayed > 0) {
+            cerr << "Recovered " << replayed << " journal entries for " << userId << endl;
+            compact();
+        }
+    }
+};
+
 /*
  * BackendController
  * Central coordinator between CLI (backend.cpp) and managers
  * No I/O formatting logic
+ *
+ * The catalog (songs, title tree, search index, recommendation graph) is
+ * process-wide and built once by loadCatalog. SET_USER only switches the
+ * active UserSession; the most recently used sessions stay cached so
+ * switching back to a user does not re-read their files.
  */
 
 class BackendController {
 private:
     SongDatabase songDB;
     SongSearchBST searchTree;
+    SongSearchIndex searchIndex;
     RecommendationEngine recommender;
+    bool catalogLoaded;
+    bool precomputeTable;
+    long long catalogBuilds;    // bumped whenever the catalog is (re)loaded
 
-    FavoritesManager* favorites;
-    RecentlyPlayedManager* recents;
-    PlaylistManager* playlists;
+    // most recently used first; `session` is always the front entry
+    list<unique_ptr<UserSession>> sessions;
+    UserSession* session;
     UserAuthManager* authManager;
 
     string currentUser;
 
+    // Active session's signals, rebuilt only after its history changed
+    const RecommendationEngine::Signals& sessionSignals() {
+        if (session->signalsStale) {
+            RecommendationEngine::Signals& signals = session->signals;
+            signals = RecommendationEngine::Signals();
+
+            // a song links to its neighbours in each playlist
+            for (const auto& pl : session->playlists.listPlaylists()) {
+                linkNearby(signals, session->playlists.getSongsForPlaylist(pl.first),
+                           PLAYLIST_LINK_SPAN, RecommendationEngine::PLAYLIST_WEIGHT);
+            }
+
+            // songs played close together
+            linkNearby(signals, session->recents.getRecents(),
+                       COPLAY_LINK_SPAN, RecommendationEngine::COPLAY_WEIGHT);
+
+            for (int id : session->favorites.getFavorites()) {
+                int row = songDB.indexOf(id);
+                if (row >= 0) signals.favorites.insert(row);
+            }
+            session->signalsStale = false;
+            session->playsSinceRebuild = 0;
+        }
+        return session->signals;
+    }
+
+    // Active session's signals while they are current, for updating in
+    // place; null when the next RECOMMEND rebuilds them anyway
+    RecommendationEngine::Signals* liveSignals() {
+        return session->signalsStale ? nullptr : &session->signals;
+    }
+
+    void setFavoriteSignal(int songId, bool favorite) {
+        RecommendationEngine::Signals* signals = liveSignals();
+        int row = songDB.indexOf(songId);
+        if (!signals || row < 0) return;
+        if (favorite) signals->favorites.insert(row);
+        else signals->favorites.erase(row);
+    }
+
+    // Songs are added at the head of a playlist, so the `added` new
+    // leading songs get exactly the links a rebuild would give them and
+    // the rest of the list keeps its own
+    void linkPlaylistHead(int playlistId, size_t added) {
+        RecommendationEngine::Signals* signals = liveSignals();
+        if (!signals || added == 0) return;
+        linkNearby(*signals, session->playlists.getSongsForPlaylist(playlistId),
+                   PLAYLIST_LINK_SPAN, RecommendationEngine::PLAYLIST_WEIGHT, (int) added);
+    }
+
+    static const int PLAYLIST_LINK_SPAN = 5;   // playlist positions apart
+    static const int COPLAY_LINK_SPAN = 2;     // plays apart
+
+    bool pageCurrent(const UserSession::PageIds& page) const {
+        return page.edits == session->edits && page.catalogBuild == catalogBuilds;
+    }
+
+    void fillPage(UserSession::PageIds& page, const vector<int>& ids) {
+        page.ids.clear();
+        for (int id : ids) {
+            if (songDB.indexOf(id) >= 0) page.ids.push_back(id);
+        }
+        page.edits = session->edits;
+        page.catalogBuild = catalogBuilds;
+    }
+
+    // Links each of the first `leading` songs of `ids` (all by default) to
+    // the songs at most `span` positions after it
+    void linkNearby(RecommendationEngine::Signals& signals, const vector<int>& ids, int span, float weight,
+                    int leading = INT_MAX) {
+        int count = (int) min<size_t>(ids.size(), (size_t) leading + span);
+        vector<int> rows;
+        rows.reserve(count);
+        for (int i = 0; i < count; i++) rows.push_back(songDB.indexOf(ids[i]));
+        for (int i = 0; i < (int) rows.size() && i < leading; i++) {
+            for (int j = i + 1; j < (int) rows.size() && j <= i + span; j++) {
+                signals.link(rows[i], rows[j], weight);
+            }
+        }
+    }
+
 public:
     BackendController() {
-        favorites = nullptr;
-        recents = nullptr;
-        playlists = nullptr;
+        catalogLoaded = false;
+        precomputeTable = true;
+        catalogBuilds = 0;
+        session = nullptr;
         authManager = new UserAuthManager();
     }
 
+    ~BackendController() {
+        delete authManager;
+    }
+
+    BackendController(const BackendController&) = delete;
+    BackendController& operator=(const BackendController&) = delete;
+
     // ================= USER AUTH =================
     bool signUp(const string& username, const string& password, const string& fullname) {
     return authManager->signUp(username, password, fullname);
@@ -54,33 +332,58 @@ public:
     }
 
     // ================= SYSTEM INIT =================
+    // Builds the shared catalog state; later calls are no-ops
+    // Read-only workers pass precompute = false: they never answer
+    // RECOMMEND, and the owner alone builds and saves the shared cache
+    void loadCatalog(bool precompute = true) {
+        if (catalogLoaded)
+            return;
+        catalogLoaded = true;
+        precomputeTable = precompute;
+        buildCatalog();
+    }
+
+    // Rebuilds the catalog when songs.csv changed on disk since it was
+    // loaded (a SongScanner rescan), so CATALOG_VERSION moves with it.
+    // Costs one stat() otherwise. True when it reloaded.
+    bool reloadCatalogIfChanged() {
+        if (!catalogLoaded)
+            return false;
+        string onDisk = SongDatabase::fileVersion(SONGS_CSV_FILE);
+        if (onDisk.empty() || onDisk == songDB.getVersion())
+            return false;
+
+        buildCatalog();
+        for (auto& s : sessions)
+            s->signalsStale = true;     // signals refer to catalog rows
+        return true;
+    }
+
+    // Makes userId the active user, reusing a cached session when there is one
     void initializeSystem(const string& userId) {
+        loadCatalog();
+        reloadCatalogIfChanged();
         currentUser = userId;
 
-        songDB.loadFromCSV("C:\\Users\\PMLS\\Desktop\\Music Streaming Platform\\songs.csv");
+        if (session != nullptr && session->userId == userId)
+            return;
 
-        for (int i = 0; i < songDB.getSongCount(); i++) {
-            Song s = songDB.getSongAt(i);
-            searchTree.insertSong(s);
-            recommender.addSongNode(s.songId);
-        }
-
-        // simple similarity: same artist
-        for (int i = 0; i < songDB.getSongCount(); i++) {
-            for (int j = i + 1; j < songDB.getSongCount(); j++) {
-                if (songDB.getSongAt(i).artist ==
-                    songDB.getSongAt(j).artist) {
-                    recommender.addEdge(
-                        songDB.getSongAt(i).songId,
-                        songDB.getSongAt(j).songId
-                    );
-                }
+        for (auto it = sessions.begin(); it != sessions.end(); ++it) {
+            if ((*it)->userId == userId) {
+                sessions.splice(sessions.begin(), sessions, it);
+                session = sessions.front().get();
+                return;
             }
         }
 
-        favorites = new FavoritesManager(userId);
-        recents   = new RecentlyPlayedManager(userId);
-        playlists = new PlaylistManager(userId);
+        sessions.emplace_front(new UserSession(userId));
+        session = sessions.front().get();
+        while (sessions.size() > MAX_CACHED_SESSIONS)
+            sessions.pop_back();
+    }
+
+    int getCachedSessionCount() {
+        return (int) sessions.size();
     }
 
     // ================= SONG ACCESS =================
@@ -88,78 +391,182 @@ public:
         return songDB.getSongCount();
     }
 
-    Song getSongByIndex(int index) {
+    SongView getSongByIndex(int index) {
         return songDB.getSongAt(index);
     }
 
-    Song* searchSongByTitle(const string& title) {
-        return searchTree.searchByTitle(title);
+    // "songs=... bytes=..." footprint of the loaded catalog
+    string getCatalogStats() {
+        return songDB.describeFootprint()
+             + " recs=" + to_string(recommender.getPrecomputedRows());
+    }
+
+    const string& getCatalogVersion() {
+        return songDB.getVersion();
+    }
+
+private:
+    void buildCatalog() {
+        recommender.stopPrecompute();   // its thread reads songDB
+        songDB.loadFromCSV(SONGS_CSV_FILE);
+        searchTree.build(songDB);
+        searchIndex.build(songDB);
+        recommender.build(songDB);
+        catalogBuilds++;
+        if (precomputeTable)
+            recommender.startPrecompute(RECOMMEND_CACHE_FILE, songDB.getVersion());
+    }
+
+public:
+
+    SongView searchSongByTitle(const string& title) {
+        int row = searchTree.searchByTitle(title);
+        return row < 0 ? SongView() : songDB.getSongAt(row);
+    }
+
+    // Ranked title/artist/genre search; fills one page of song indexes
+    // and returns the total number of matches
+    int searchSongs(const string& query, int limit, int offset, vector<int>& page) {
+        return searchIndex.search(query, limit, offset, page);
     }
 
     // ================= PLAY =================
     void songPlayed(int songId) {
-        recents->addSong(songId);
+        if (!session) return;
+        session->played(songId);
+
+        // The new play links to the plays just before it. A replayed song
+        // keeps its old neighbours' links, and plays that fall off the
+        // list keep theirs, until a rebuild every MAX_RECENT plays
+        // re-derives the window.
+        RecommendationEngine::Signals* signals = liveSignals();
+        if (!signals) return;
+        linkNearby(*signals, session->recents.getRecents(),
+                   COPLAY_LINK_SPAN, RecommendationEngine::COPLAY_WEIGHT, 1);
+        if (++session->playsSinceRebuild >= MAX_RECENT)
+            session->signalsStale = true;
     }
 
     // ================= FAVORITES =================
     void addFavorite(int songId) {
-        favorites->addFavorite(songId);
+        if (!session) return;
+        session->addFavorite(songId);
+        setFavoriteSignal(songId, true);
     }
 
     void removeFavorite(int songId) {
-        favorites->removeFavorite(songId);
+        if (!session) return;
+        session->removeFavorite(songId);
+        setFavoriteSignal(songId, false);
+    }
+
+    void addFavorites(const vector<int>& songIds) {
+        if (!session) return;
+        session->addFavorites(songIds);
+        for (int songId : songIds) setFavoriteSignal(songId, true);
+    }
+
+    void removeFavorites(const vector<int>& songIds) {
+        if (!session) return;
+        session->removeFavorites(songIds);
+        for (int songId : songIds) setFavoriteSignal(songId, false);
     }
 
     bool isFavorite(int songId) {
-        return favorites->isFavorite(songId);
+        return session && session->favorites.isFavorite(songId);
+    }
+
+    vector<int> getFavoriteIds() {
+        if (!session) return vector<int>();
+        return session->favorites.getFavorites();
     }
 
     // ================= PLAYLIST =================
     void createPlaylist(int playlistId, const string& name) {
-        playlists->createPlaylist(playlistId, name);
+        if (!session) return;
+        session->createPlaylist(playlistId, name);
     }
 
     void addSongToPlaylist(int playlistId, int songId) {
-        playlists->addSongToPlaylist(playlistId, songId);
+        if (!session) return;
+        size_t before = session->playlists.getSongsForPlaylist(playlistId).size();
+        session->addSongToPlaylist(playlistId, songId);
+        linkPlaylistHead(playlistId, session->playlists.getSongsForPlaylist(playlistId).size() - before);
+    }
+
+    void addSongsToPlaylist(int playlistId, const vector<int>& songIds) {
+        if (!session) return;
+        size_t before = session->playlists.getSongsForPlaylist(playlistId).size();
+        session->addSongsToPlaylist(playlistId, songIds);
+        linkPlaylistHead(playlistId, session->playlists.getSongsForPlaylist(playlistId).size() - before);
     }
 
     void removeSongFromPlaylist(int playlistId, int songId) {
-        playlists->removeSongFromPlaylist(playlistId, songId);
+        if (!session) return;
+        session->removeSongFromPlaylist(playlistId, songId);
+        // its neighbours close the gap and link anew; links cannot be taken back
+        session->signalsStale = true;
+    }
+
+    // Favorites in song id order, without ids missing from the catalog
+    const vector<int>& getFavoritePageIds() {
+        static const vector<int> none;
+        if (!session) return none;
+        UserSession::PageIds& page = session->favoritePage;
+        if (!pageCurrent(page)) {
+            fillPage(page, session->favorites.getFavorites());
+            sort(page.ids.begin(), page.ids.end());
+        }
+        return page.ids;
+    }
+
+    // A playlist's songs in order, without ids missing from the catalog
+    const vector<int>& getPlaylistPageIds(int playlistId) {
+        static const vector<int> none;
+        if (!session) return none;
+        UserSession::PageIds& page = session->playlistPage;
+        if (!pageCurrent(page) || page.playlistId != playlistId) {
+            page.playlistId = playlistId;
+            fillPage(page, session->playlists.getSongsForPlaylist(playlistId));
+        }
+        return page.ids;
     }
 
     // Return list of playlists (id,name)
     vector<pair<int,string>> getPlaylists() {
-        if (!playlists) return vector<pair<int,string>>();
-        return playlists->listPlaylists();
+        if (!session) return vector<pair<int,string>>();
+        return session->playlists.listPlaylists();
     }
 
     // Return song ids for a given playlist
     vector<int> getPlaylistSongIds(int playlistId) {
-        if (!playlists) return vector<int>();
-        return playlists->getSongsForPlaylist(playlistId);
+        if (!session) return vector<int>();
+        return session->playlists.getSongsForPlaylist(playlistId);
     }
 
     // ================= RECOMMEND =================
-    // Return list of recommended song IDs
-    vector<int> recommendFromSong(int songId) {
-        return recommender.getRecommendations(songId);
-    }
-
-    // Fetch Song by ID (returns Song with songId=-1 if not found)
-    Song getSongById(int songId) {
-        Song s;
-        s.songId = -1;
-        for (int i = 0; i < songDB.getSongCount(); i++) {
-            Song cand = songDB.getSongAt(i);
-            if (cand.songId == songId) return cand;
-        }
-        return s;
+    // Return up to `limit` recommended song IDs, best first, personalised
+    // with the active user's playlists, recent plays and favorites
+    vector<int> recommendFromSong(int songId, int limit) {
+        static const RecommendationEngine::Signals noSignals;
+        const RecommendationEngine::Signals& signals = session ? sessionSignals() : noSignals;
+
+        vector<int> recs;
+        if (recommender.lookup(songId, limit, signals, recs))
+            return recs;
+        return recommender.recommend(songId, limit, signals);
+    }
+
+    // Fetch Song by ID in O(1) (returns a view with songId=-1 if not found)
+    SongView getSongById(int songId) {
+        int row = songDB.indexOf(songId);
+        return row < 0 ? SongView() : songDB.getSongAt(row);
     }
 
     // Return recent song IDs for current user (most recent first)
     vector<int> getRecentSongIds() {
-        if (!recents) return vector<int>();
-        return recents->getRecents();
+        if (!session) return vector<int>();
+        return session->recents.getRecents();
     }
 };
 
@@ -17,10 +17,10 @@
 #include <string>
 #include <fstream>
 #include <cstring>
+#include <vector>
 
 using namespace std;
 
-const int MAX_SONGS = 1000;
 const int MAX_PLAYLISTS = 100;
 const int MAX_RECENT = 20;
 const int HASH_SIZE = 1009;  // Prime number for better distribution
@@ -28,26 +28,24 @@ const int HASH_SIZE = 1009;  // Prime number for better distribution
 // ==================== SONG STRUCTURE ====================
 struct Song {
     int id;
-    char title[256];
-    char artist[256];
-    char genre[64];
+    string title;
+    string artist;
+    string genre;
     int duration;           // in seconds
-    char path[512];
-    char imagePath[512];
+    string path;
+    string imagePath;
     
-    Song() : id(0), duration(0) {
-        title[0] = artist[0] = genre[0] = path[0] = imagePath[0] = '\0';
-    }
+    Song() : id(0), duration(0) {}
     
     void set(int _id, const char* _title, const char* _artist, 
              const char* _genre, int _duration, const char* _path, const char* _imagePath) {
         id = _id;
-        strncpy(title, _title, 255); title[255] = '\0';
-        strncpy(artist, _artist, 255); artist[255] = '\0';
-        strncpy(genre, _genre, 63); genre[63] = '\0';
+        title = _title;
+        artist = _artist;
+        genre = _genre;
         duration = _duration;
-        strncpy(path, _path, 511); path[511] = '\0';
-        strncpy(imagePath, _imagePath, 511); imagePath[511] = '\0';
+        path = _path;
+        imagePath = _imagePath;
     }
     
     void print() const {
@@ -197,13 +195,12 @@ public:
     bool isEmpty() const { return size == 0; }
     ListNode* getHead() const { return head; }
     
-    // Get all song IDs as array
-    void toArray(int* arr, int& count) const {
-        count = 0;
-        ListNode* curr = head;
-        while (curr && count < MAX_SONGS) {
-            arr[count++] = curr->songId;
-            curr = curr->next;
+    // Get all song IDs in list order
+    void toArray(vector<int>& out) const {
+        out.clear();
+        out.reserve(size);
+        for (ListNode* curr = head; curr; curr = curr->next) {
+            out.push_back(curr->songId);
         }
     }
 };
@@ -438,13 +435,12 @@ public:
     int getCount() const { return count; }
     
     // Get all keys
-    void toArray(int* arr, int& cnt) const {
-        cnt = 0;
-        for (int i = 0; i < HASH_SIZE && cnt < MAX_SONGS; i++) {
-            HashNode* curr = table[i];
-            while (curr && cnt < MAX_SONGS) {
-                arr[cnt++] = curr->key;
-                curr = curr->next;
+    void toArray(vector<int>& out) const {
+        out.clear();
+        out.reserve(count);
+        for (int i = 0; i < HASH_SIZE; i++) {
+            for (HashNode* curr = table[i]; curr; curr = curr->next) {
+                out.push_back(curr->key);
             }
         }
     }
@@ -514,7 +510,7 @@ private:
             return new BSTNode(song);
         }
         
-        int cmp = compareTitle(song.title, node->song.title);
+        int cmp = compareTitle(song.title.c_str(), node->song.title.c_str());
         if (cmp < 0) {
             node->left = insert(node->left, song);
         } else {
@@ -531,8 +527,8 @@ private:
         
         if (count < maxResults) {
             // Check title and artist for partial match
-            if (containsSubstring(node->song.title, query) || 
-                containsSubstring(node->song.artist, query)) {
+            if (containsSubstring(node->song.title.c_str(), query) || 
+                containsSubstring(node->song.artist.c_str(), query)) {
                 results[count++] = node->song;
             }
         }
@@ -549,11 +545,11 @@ private:
     }
     
     // In-order traversal to array
-    void toArray(BSTNode* node, Song* arr, int& count) const {
-        if (!node || count >= MAX_SONGS) return;
-        toArray(node->left, arr, count);
-        if (count < MAX_SONGS) arr[count++] = node->song;
-        toArray(node->right, arr, count);
+    void toArray(BSTNode* node, vector<Song>& out) const {
+        if (!node) return;
+        toArray(node->left, out);
+        out.push_back(node->song);
+        toArray(node->right, out);
     }
     
 public:
@@ -596,9 +592,10 @@ public:
     
     int getSize() const { return size; }
     
-    void getAllSongs(Song* arr, int& count) const {
-        count = 0;
-        toArray(root, arr, count);
+    void getAllSongs(vector<Song>& out) const {
+        out.clear();
+        out.reserve(size);
+        toArray(root, out);
     }
 };
 
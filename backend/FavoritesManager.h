@@ -4,29 +4,81 @@
 #include <fstream>
 #include <iostream>
 #include <string>
+#include <vector>
+#include <sstream>
+#include <cstdint>
+#include "UserJournal.h"
 
 using namespace std;
 
-#define FAVORITES_TABLE_SIZE 101   // prime number for hashing
+#define FAVORITES_INITIAL_SIZE 64   // power of two; the table doubles as it fills
+
+/*
+ * FavoritesManager
+ * Set of the user's favorite song ids
+ *
+ * Open addressing with linear probing over a power-of-two table that
+ * doubles once it is more than 70% full, so add / remove / check stay
+ * O(1) however many favorites there are. Removal shifts the following
+ * entries of the probe run back instead of leaving a hole, so lookups
+ * never stop early at a removed slot and no tombstones build up.
+ */
 
 class FavoritesManager {
 private:
-    int table[FAVORITES_TABLE_SIZE];
-    bool occupied[FAVORITES_TABLE_SIZE];
+    vector<int> table;
+    vector<char> occupied;
+    int count;
+    int shift;              // 32 - log2(table size)
     string fileName;
+    long long snapshotSeq;  // last journal entry contained in the CSV
+
+    int mask() const {
+        return (int) table.size() - 1;
+    }
 
-    int hash(int songId) {
-        return songId % FAVORITES_TABLE_SIZE;
+    // Fibonacci hashing: the top bits of the product spread sequential ids
+    int hash(int songId) const {
+        uint32_t h = (uint32_t) songId * 2654435769u;
+        return (int) (h >> shift);
+    }
+
+    // Slot holding songId, or the empty slot where it would go
+    int findSlot(int songId) const {
+        int index = hash(songId);
+        while (occupied[index] && table[index] != songId)
+            index = (index + 1) & mask();
+        return index;
+    }
+
+    void grow() {
+        vector<int> oldTable;
+        vector<char> oldOccupied;
+        oldTable.swap(table);
+        oldOccupied.swap(occupied);
+
+        table.assign(oldTable.size() * 2, 0);
+        occupied.assign(oldTable.size() * 2, 0);
+        shift--;
+        for (size_t i = 0; i < oldTable.size(); i++) {
+            if (oldOccupied[i]) {
+                int index = findSlot(oldTable[i]);
+                table[index] = oldTable[i];
+                occupied[index] = 1;
+            }
+        }
     }
 
 public:
     FavoritesManager(const string& userId) {
         fileName = "favorites_" + userId + ".csv";
 
-        for (int i = 0; i < FAVORITES_TABLE_SIZE; i++) {
-            occupied[i] = false;
-        }
+        table.assign(FAVORITES_INITIAL_SIZE, 0);
+        occupied.assign(FAVORITES_INITIAL_SIZE, 0);
+        count = 0;
+        shift = 26;             // 64 slots
 
+        snapshotSeq = 0;
         loadFromCSV();
     }
 
@@ -35,62 +87,90 @@ public:
         if (!file.is_open())
             return;
 
+        snapshotSeq = UserJournal::readSnapshotSeq(file);
         int songId;
         while (file >> songId) {
-            addFavorite(songId, false);
+            addFavorite(songId);
         }
 
         file.close();
     }
 
-    void addFavorite(int songId, bool save = true) {
-        int index = hash(songId);
+    long long getSnapshotSeq() {
+        return snapshotSeq;
+    }
+
+    void addFavorite(int songId) {
+        int index = findSlot(songId);
+        if (occupied[index])
+            return; // already exists
 
-        while (occupied[index]) {
-            if (table[index] == songId)
-                return; // already exists
-            index = (index + 1) % FAVORITES_TABLE_SIZE;
+        if ((count + 1) * 10 > (int) table.size() * 7) {
+            grow();
+            index = findSlot(songId);
         }
 
         table[index] = songId;
-        occupied[index] = true;
-
-        if (save)
-            saveToCSV();
+        occupied[index] = 1;
+        count++;
     }
 
     void removeFavorite(int songId) {
-        int index = hash(songId);
+        int hole = findSlot(songId);
+        if (!occupied[hole])
+            return;
 
-        while (occupied[index]) {
-            if (table[index] == songId) {
-                occupied[index] = false;
-                saveToCSV();
-                return;
+        // backward-shift: pull later entries of the run into the hole
+        // unless their home slot lies cyclically in (hole, next]
+        int next = hole;
+        while (true) {
+            next = (next + 1) & mask();
+            if (!occupied[next])
+                break;
+            int home = hash(table[next]);
+            bool stays = (hole <= next) ? (hole < home && home <= next)
+                                        : (hole < home || home <= next);
+            if (!stays) {
+                table[hole] = table[next];
+                hole = next;
             }
-            index = (index + 1) % FAVORITES_TABLE_SIZE;
         }
+        occupied[hole] = 0;
+        count--;
     }
 
-    bool isFavorite(int songId) {
-        int index = hash(songId);
+    bool isFavorite(int songId) const {
+        return occupied[findSlot(songId)];
+    }
 
-        while (occupied[index]) {
-            if (table[index] == songId)
-                return true;
-            index = (index + 1) % FAVORITES_TABLE_SIZE;
+    int size() const {
+        return count;
+    }
+
+    // Favorite song ids in table order
+    vector<int> getFavorites() {
+        vector<int> ids;
+        ids.reserve(count);
+        for (size_t i = 0; i < table.size(); i++) {
+            if (occupied[i])
+                ids.push_back(table[i]);
         }
-        return false;
+        return ids;
     }
 
-    void saveToCSV() {
-        ofstream file(fileName, ios::trunc);
-        for (int i = 0; i < FAVORITES_TABLE_SIZE; i++) {
+    // Snapshot holding every change up to journal entry `seq`
+    bool saveToCSV(long long seq) {
+        ostringstream out;
+        out << UserJournal::snapshotHeader(seq);
+        for (size_t i = 0; i < table.size(); i++) {
             if (occupied[i]) {
-                file << table[i] << endl;
+                out << table[i] << '\n';
             }
         }
-        file.close();
+        if (!UserJournal::writeFileAtomically(fileName, out.str()))
+            return false;
+        snapshotSeq = seq;
+        return true;
     }
 };
 
@@ -0,0 +1,145 @@
+#ifndef MAPPEDFILE_H
+#define MAPPEDFILE_H
+
+#include <string>
+#include <fstream>
+#include <sstream>
+
+#ifdef _WIN32
+#ifndef NOMINMAX
+#define NOMINMAX
+#endif
+#ifndef WIN32_LEAN_AND_MEAN
+#define WIN32_LEAN_AND_MEAN
+#endif
+#include <windows.h>
+#else
+#include <sys/mman.h>
+#include <sys/stat.h>
+#include <fcntl.h>
+#include <unistd.h>
+#endif
+
+using namespace std;
+
+/*
+ * MappedFile
+ * Read-only view of a whole file, memory mapped where possible
+ *
+ * Uses mmap on POSIX and a file mapping on Windows. If mapping fails
+ * (special files, exotic filesystems) the file is read into memory
+ * instead, so callers always get one contiguous byte range.
+ */
+
+class MappedFile {
+private:
+    const char* bytes;
+    size_t length;
+    string fallback;
+
+#ifdef _WIN32
+    HANDLE file;
+    HANDLE mapping;
+#else
+    int fd;
+#endif
+
+    bool readFallback(const string& path) {
+        ifstream in(path, ios::binary);
+        if (!in.is_open()) return false;
+        ostringstream ss;
+        ss << in.rdbuf();
+        fallback = ss.str();
+        bytes = fallback.data();
+        length = fallback.size();
+        return true;
+    }
+
+public:
+    MappedFile() {
+        bytes = nullptr;
+        length = 0;
+#ifdef _WIN32
+        file = INVALID_HANDLE_VALUE;
+        mapping = NULL;
+#else
+        fd = -1;
+#endif
+    }
+
+    ~MappedFile() {
+        close();
+    }
+
+    MappedFile(const MappedFile&) = delete;
+    MappedFile& operator=(const MappedFile&) = delete;
+
+    bool open(const string& path) {
+        close();
+
+#ifdef _WIN32
+        file = CreateFileA(path.c_str(), GENERIC_READ, FILE_SHARE_READ | FILE_SHARE_WRITE,
+                           NULL, OPEN_EXISTING, FILE_FLAG_SEQUENTIAL_SCAN, NULL);
+        if (file == INVALID_HANDLE_VALUE) return false;
+
+        LARGE_INTEGER size;
+        if (!GetFileSizeEx(file, &size)) { close(); return false; }
+        length = (size_t) size.QuadPart;
+        if (length == 0) return true;
+
+        mapping = CreateFileMappingA(file, NULL, PAGE_READONLY, 0, 0, NULL);
+        if (mapping != NULL) {
+            bytes = (const char*) MapViewOfFile(mapping, FILE_MAP_READ, 0, 0, 0);
+        }
+        if (bytes == nullptr) {
+            close();
+            return readFallback(path);
+        }
+        return true;
+#else
+        fd = ::open(path.c_str(), O_RDONLY);
+        if (fd < 0) return false;
+
+        struct stat st;
+        if (fstat(fd, &st) != 0) { close(); return false; }
+        length = (size_t) st.st_size;
+        if (length == 0) return true;
+
+        void* p = mmap(nullptr, length, PROT_READ, MAP_PRIVATE, fd, 0);
+        if (p == MAP_FAILED) {
+            close();
+            return readFallback(path);
+        }
+        madvise(p, length, MADV_SEQUENTIAL);
+        bytes = (const char*) p;
+        return true;
+#endif
+    }
+
+    void close() {
+#ifdef _WIN32
+        if (bytes != nullptr && fallback.empty()) UnmapViewOfFile(bytes);
+        if (mapping != NULL) CloseHandle(mapping);
+        if (file != INVALID_HANDLE_VALUE) CloseHandle(file);
+        mapping = NULL;
+        file = INVALID_HANDLE_VALUE;
+#else
+        if (bytes != nullptr && fallback.empty()) munmap((void*) bytes, length);
+        if (fd >= 0) ::close(fd);
+        fd = -1;
+#endif
+        bytes = nullptr;
+        length = 0;
+        fallback.clear();
+    }
+
+    const char* data() const {
+        return bytes;
+    }
+
+    size_t size() const {
+        return length;
+    }
+};
+
+#endif
@@ -7,6 +7,8 @@
 #include "Song.h"
 #include <vector>
 #include <utility>
+#include <sstream>
+#include "UserJournal.h"
 
 using namespace std;
 
@@ -37,6 +39,8 @@ private:
     int count;
     string playlistFile;
     string playlistSongsFile;
+    long long playlistSeq;  // last journal entry contained in each CSV
+    long long songsSeq;
 
     int hash(int playlistId) {
         return playlistId % PLAYLIST_TABLE_SIZE;
@@ -47,6 +51,8 @@ public:
         playlistFile = "playlists_" + userId + ".csv";
         playlistSongsFile = "playlist_songs_" + userId + ".csv";
         count = 0;
+        playlistSeq = 0;
+        songsSeq = 0;
 
         for (int i = 0; i < PLAYLIST_TABLE_SIZE; i++)
             occupied[i] = false;
@@ -55,6 +61,22 @@ public:
         loadPlaylistSongs();
     }
 
+    ~PlaylistManager() {
+        for (int i = 0; i < PLAYLIST_TABLE_SIZE; i++) {
+            if (!occupied[i])
+                continue;
+            PlaylistNode* curr = playlists[i].head;
+            while (curr != NULL) {
+                PlaylistNode* next = curr->next;
+                delete curr;
+                curr = next;
+            }
+        }
+    }
+
+    PlaylistManager(const PlaylistManager&) = delete;
+    PlaylistManager& operator=(const PlaylistManager&) = delete;
+
     void createPlaylist(int playlistId, const string& name) {
         if (count >= MAX_PLAYLISTS)
             return;
@@ -68,8 +90,14 @@ public:
         playlists[index].head = NULL;
         occupied[index] = true;
         count++;
+    }
 
-        savePlaylists();
+    long long getPlaylistsSnapshotSeq() {
+        return playlistSeq;
+    }
+
+    long long getSongsSnapshotSeq() {
+        return songsSeq;
     }
 
     void addSongToPlaylist(int playlistId, int songId) {
@@ -79,7 +107,6 @@ public:
                 PlaylistNode* node = new PlaylistNode(songId);
                 node->next = playlists[index].head;
                 playlists[index].head = node;
-                savePlaylistSongs();
                 return;
             }
             index = (index + 1) % PLAYLIST_TABLE_SIZE;
@@ -91,6 +118,7 @@ public:
         if (!file.is_open())
             return;
 
+        playlistSeq = UserJournal::readSnapshotSeq(file);
         int id;
         string name;
         while (file >> id) {
@@ -106,6 +134,10 @@ public:
         if (!file.is_open())
             return;
 
+        songsSeq = UserJournal::readSnapshotSeq(file);
+
+        // each list is stored head first; re-adding tail first keeps its order
+        vector<pair<int, int>> entries;
         string line;
         while (getline(file, line)) {
             if (line.empty()) continue;
@@ -113,35 +145,47 @@ public:
             if (comma == string::npos) continue;
             int pid = stoi(line.substr(0, comma));
             int sid = stoi(line.substr(comma + 1));
-            addSongToPlaylist(pid, sid);
+            entries.push_back(make_pair(pid, sid));
         }
         file.close();
+        for (int i = (int) entries.size() - 1; i >= 0; i--) {
+            addSongToPlaylist(entries[i].first, entries[i].second);
+        }
     }
 
-    void savePlaylists() {
-        ofstream file(playlistFile, ios::trunc);
+    // Snapshots holding every change up to journal entry `seq`
+    bool savePlaylists(long long seq) {
+        ostringstream out;
+        out << UserJournal::snapshotHeader(seq);
         for (int i = 0; i < PLAYLIST_TABLE_SIZE; i++) {
             if (occupied[i]) {
-                file << playlists[i].playlistId << ","
-                     << playlists[i].name << endl;
+                out << playlists[i].playlistId << ","
+                    << playlists[i].name << '\n';
             }
         }
-        file.close();
+        if (!UserJournal::writeFileAtomically(playlistFile, out.str()))
+            return false;
+        playlistSeq = seq;
+        return true;
     }
 
-    void savePlaylistSongs() {
-        ofstream file(playlistSongsFile, ios::trunc);
+    bool savePlaylistSongs(long long seq) {
+        ostringstream out;
+        out << UserJournal::snapshotHeader(seq);
         for (int i = 0; i < PLAYLIST_TABLE_SIZE; i++) {
             if (occupied[i]) {
                 PlaylistNode* curr = playlists[i].head;
                 while (curr != NULL) {
-                    file << playlists[i].playlistId << ","
-                         << curr->songId << endl;
+                    out << playlists[i].playlistId << ","
+                        << curr->songId << '\n';
                     curr = curr->next;
                 }
             }
         }
-        file.close();
+        if (!UserJournal::writeFileAtomically(playlistSongsFile, out.str()))
+            return false;
+        songsSeq = seq;
+        return true;
     }
 
     // Remove a song from a playlist (first occurrence)
@@ -160,7 +204,6 @@ public:
                             prev->next = curr->next;
                         }
                         delete curr;
-                        savePlaylistSongs();
                         return;
                     }
                     prev = curr;
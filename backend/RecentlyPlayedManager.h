@@ -4,6 +4,9 @@
 #include <fstream>
 #include <iostream>
 #include <string>
+#include <vector>
+#include <sstream>
+#include "UserJournal.h"
 
 using namespace std;
 
@@ -28,15 +31,28 @@ private:
     RecentNode* tail;
     int size;
     string fileName;
+    long long snapshotSeq;  // last journal entry contained in the CSV
 
 public:
     RecentlyPlayedManager(const string& userId) {
         head = tail = NULL;
         size = 0;
         fileName = "recently_played_" + userId + ".csv";
+        snapshotSeq = 0;
         loadFromCSV();
     }
 
+    ~RecentlyPlayedManager() {
+        while (head != NULL) {
+            RecentNode* next = head->next;
+            delete head;
+            head = next;
+        }
+    }
+
+    RecentlyPlayedManager(const RecentlyPlayedManager&) = delete;
+    RecentlyPlayedManager& operator=(const RecentlyPlayedManager&) = delete;
+
     void addSong(int songId) {
         removeIfExists(songId);
 
@@ -52,8 +68,10 @@ public:
         size++;
         if (size > MAX_RECENT)
             removeLast();
+    }
 
-        saveToCSV();
+    long long getSnapshotSeq() {
+        return snapshotSeq;
     }
 
     void removeIfExists(int songId) {
@@ -97,21 +115,33 @@ public:
         if (!file.is_open())
             return;
 
+        snapshotSeq = UserJournal::readSnapshotSeq(file);
+
+        // stored most recent first; replay oldest first to keep that order
+        vector<int> ids;
         int songId;
         while (file >> songId) {
-            addSong(songId);
+            ids.push_back(songId);
         }
         file.close();
+        for (int i = (int) ids.size() - 1; i >= 0; i--) {
+            addSong(ids[i]);
+        }
     }
 
-    void saveToCSV() {
-        ofstream file(fileName, ios::trunc);
+    // Snapshot holding every change up to journal entry `seq`
+    bool saveToCSV(long long seq) {
+        ostringstream out;
+        out << UserJournal::snapshotHeader(seq);
         RecentNode* curr = head;
         while (curr != NULL) {
-            file << curr->songId << endl;
+            out << curr->songId << '\n';
             curr = curr->next;
         }
-        file.close();
+        if (!UserJournal::writeFileAtomically(fileName, out.str()))
+            return false;
+        snapshotSeq = seq;
+        return true;
     }
 
     // Return a vector of recent song IDs (most recent first)
@@ -3,90 +3,509 @@
 
 #include <iostream>
 #include <vector>
+#include <cstdint>
+#include <cstdlib>
+#include <algorithm>
+#include <unordered_map>
+#include <unordered_set>
+#include <string_view>
+#include <queue>
+#include <thread>
+#include <atomic>
+#include <fstream>
+#include <cstdio>
+#include "SongDatabase.h"
+
+#ifdef _WIN32
+#ifndef NOMINMAX
+#define NOMINMAX
+#endif
+#ifndef WIN32_LEAN_AND_MEAN
+#define WIN32_LEAN_AND_MEAN
+#endif
+#include <windows.h>
+#include <process.h>
+#else
+#include <unistd.h>
+#endif
 using namespace std;
 
-#define MAX_GRAPH_SONGS 1000
 #define MAX_EDGES 10
+#define MAX_RECOMMENDATIONS 20     // default RECOMMEND limit
+#define MAX_RECOMMEND_LIMIT 200
+#define PRECOMPUTED_K MAX_RECOMMENDATIONS  // neighbours kept per song in the table
+
+/*
+ * RecommendationEngine
+ * Song similarity graph walked breadth-first by RECOMMEND
+ *
+ * Nodes are catalog rows. Each song gets up to MAX_EDGES neighbours,
+ * chosen best first: same artist and genre, then same artist, then same
+ * genre, and within each group the songs closest in duration. Candidates
+ * come from per-group lists sorted by duration, so a song only looks at
+ * a few entries on either side of itself instead of the whole group.
+ * Edges are stored in one CSR array (offsets + targets) with a weight
+ * per edge.
+ *
+ * recommend() scores songs with a personalized PageRank from the seed
+ * song, approximated by residual pushing so only the neighbourhood that
+ * actually gathers probability mass is visited. The user's own history
+ * is layered on top of the catalog edges through Signals: songs that
+ * share a playlist or were played back to back get extra edges, and
+ * edges into favorites weigh more. The best `limit` songs are picked
+ * with a bounded min-heap.
+ *
+ * Because the catalog graph does not change while the process runs, the
+ * walk without user signals is precomputed for every song on a
+ * background thread after build(), giving a table of PRECOMPUTED_K
+ * neighbours per row. The table is saved to a binary file tagged with
+ * the catalog version and reloaded on the next start. lookup() serves
+ * RECOMMEND from it: the user's direct playlist / co-play neighbours of
+ * the seed first, then the table entries, favorites ahead within each
+ * group. Rows the thread has not reached yet fall back to recommend().
+ */
 
 class RecommendationEngine {
-private:
-    // Graph node defined INSIDE the file (simple & academic)
-    struct GraphNode {
-        int songId;
-        int neighbors[MAX_EDGES];
-        int neighborCount;
+public:
+    /*
+     * Signals
+     * Per-user edges and favorites, keyed by catalog row
+     */
+    struct Signals {
+        unordered_map<int, vector<pair<int, float>>> extra;
+        unordered_set<int> favorites;
 
-        GraphNode() {
-            songId = -1;
-            neighborCount = 0;
+        void link(int a, int b, float weight) {
+            if (a < 0 || b < 0 || a == b) return;
+            extra[a].push_back(make_pair(b, weight));
+            extra[b].push_back(make_pair(a, weight));
         }
     };
 
-    GraphNode graph[MAX_GRAPH_SONGS];
-    int nodeCount;
+    static constexpr float PLAYLIST_WEIGHT = 10.0f;  // songs sharing a playlist
+    static constexpr float COPLAY_WEIGHT = 8.0f;     // songs played close together
+
+private:
+    static const unsigned char SAME_ARTIST_GENRE = 3;
+    static const unsigned char SAME_ARTIST = 2;
+    static const unsigned char SAME_GENRE = 1;
+    static const int SCAN_LIMIT = 8 * MAX_EDGES;   // entries examined per group
+
+    // Rows grouped by a key and sorted by duration inside each group
+    struct Buckets {
+        vector<int> order;      // rows, grouped
+        vector<int> start;      // group g is order[start[g] .. start[g + 1])
+        vector<int> pos;        // row -> position in order, -1 if absent
+    };
+
+    static constexpr float RESTART = 0.5f;         // teleport back to the seed; high keeps it local
+    static constexpr float EPSILON = 1e-4f;        // residual below EPSILON / limit is not pushed
+    static const int MAX_PUSHES = 20000;           // hard bound on work per call
+    static constexpr float FAVORITE_BOOST = 1.5f;  // weight multiplier on edges into favorites
 
-    int findNodeIndex(int songId) {
-        for (int i = 0; i < nodeCount; i++) {
-            if (graph[i].songId == songId)
-                return i;
+    static const uint32_t CACHE_MAGIC = 0x43525253;  // "SRRC"
+    static const uint32_t CACHE_FORMAT = 1;          // bump when scoring changes
+
+    // Scratch state of one walk, reused across calls; `touched` lists the rows to reset
+    struct Walk {
+        vector<float> estimate;
+        vector<float> residual;
+        vector<char> queued;
+        vector<int> touched;
+        vector<int> work;
+    };
+
+    const SongDatabase* db;
+    Walk live;                          // used by recommend() on the command thread
+
+    // Precomputed neighbour rows, PRECOMPUTED_K per row, -1 padded.
+    // Rows [0, tableRows) are final and safe to read.
+    vector<int32_t> table;
+    atomic<int> tableRows;
+    atomic<bool> stopping;
+    thread worker;
+
+    vector<int> offsets;                // node -> first edge, size nodes + 1
+    vector<int> targets;                // neighbour rows
+    vector<unsigned char> weights;      // parallel to targets
+
+    static void group(Buckets& b, const vector<int>& keyOf, int keys,
+                      const vector<int>& duration, const vector<int>& rows) {
+        b.start.assign(keys + 1, 0);
+        for (int r : rows) b.start[keyOf[r] + 1]++;
+        for (int k = 0; k < keys; k++) b.start[k + 1] += b.start[k];
+
+        b.order.assign(rows.size(), 0);
+        vector<int> fill(b.start.begin(), b.start.end() - 1);
+        for (int r : rows) b.order[fill[keyOf[r]]++] = r;
+
+        for (int k = 0; k < keys; k++) {
+            sort(b.order.begin() + b.start[k], b.order.begin() + b.start[k + 1],
+                 [&duration](int x, int y) {
+                     return duration[x] != duration[y] ? duration[x] < duration[y] : x < y;
+                 });
         }
-        return -1;
+
+        b.pos.assign(duration.size(), -1);
+        for (int i = 0; i < (int) b.order.size(); i++) b.pos[b.order[i]] = i;
+    }
+
+    // Adds up to `want` rows of row's group nearest to it in duration,
+    // skipping rows for which skip() is true
+    template <typename Skip>
+    static int nearest(const Buckets& b, int key, int row, const vector<int>& duration,
+                       int want, unsigned char weight, Skip skip,
+                       vector<int>& outRows, vector<unsigned char>& outWeights) {
+        int lo = b.start[key], hi = b.start[key + 1];
+        int p = b.pos[row];
+        int left = p - 1, right = p + 1;
+        int added = 0, scanned = 0;
+        bool rightOnTie = false;    // alternate on ties so runs of equal durations stay connected
+
+        while (added < want && scanned < SCAN_LIMIT && (left >= lo || right < hi)) {
+            int pick;
+            if (left < lo) pick = right++;
+            else if (right >= hi) pick = left--;
+            else {
+                int dl = abs(duration[b.order[left]] - duration[row]);
+                int dr = abs(duration[b.order[right]] - duration[row]);
+                if (dr < dl || (dr == dl && rightOnTie)) pick = right++;
+                else pick = left--;
+                if (dr == dl) rightOnTie = !rightOnTie;
+            }
+
+            scanned++;
+            int cand = b.order[pick];
+            if (skip(cand)) continue;
+            outRows.push_back(cand);
+            outWeights.push_back(weight);
+            added++;
+        }
+        return added;
     }
 
 public:
-    RecommendationEngine() {
-        nodeCount = 0;
+    RecommendationEngine() : tableRows(0), stopping(false) {
+        db = nullptr;
     }
 
-    void addSongNode(int songId) {
-        graph[nodeCount].songId = songId;
-        nodeCount++;
+    ~RecommendationEngine() {
+        stopPrecompute();
     }
 
-    void addEdge(int songId1, int songId2) {
-        int i1 = findNodeIndex(songId1);
-        int i2 = findNodeIndex(songId2);
+    RecommendationEngine(const RecommendationEngine&) = delete;
+    RecommendationEngine& operator=(const RecommendationEngine&) = delete;
 
-        if (i1 == -1 || i2 == -1)
-            return;
+    void clear() {
+        stopPrecompute();
+        offsets.clear();
+        targets.clear();
+        weights.clear();
+        live = Walk();
+        table.clear();
+    }
+
+    void build(const SongDatabase& songs) {
+        clear();
+        db = &songs;
+        int n = songs.getSongCount();
 
-        if (graph[i1].neighborCount < MAX_EDGES)
-            graph[i1].neighbors[graph[i1].neighborCount++] = songId2;
+        // dense artist / genre ids; rows shadowed by an earlier duplicate id get no node edges
+        unordered_map<string_view, int> artistIds, genreIds;
+        vector<int> artistOf(n), genreOf(n), pairOf(n), duration(n), rows;
+        unordered_map<uint64_t, int> pairIds;
+        rows.reserve(n);
+        for (int i = 0; i < n; i++) {
+            SongView s = songs.getSongAt(i);
+            artistOf[i] = artistIds.emplace(s.artist, (int) artistIds.size()).first->second;
+            genreOf[i] = genreIds.emplace(s.genre, (int) genreIds.size()).first->second;
+            uint64_t pairKey = ((uint64_t) artistOf[i] << 32) | (uint32_t) genreOf[i];
+            pairOf[i] = pairIds.emplace(pairKey, (int) pairIds.size()).first->second;
+            duration[i] = s.duration;
+            if (songs.indexOf(s.songId) == i) rows.push_back(i);
+        }
+
+        Buckets byPair, byArtist, byGenre;
+        group(byPair, pairOf, (int) pairIds.size(), duration, rows);
+        group(byArtist, artistOf, (int) artistIds.size(), duration, rows);
+        group(byGenre, genreOf, (int) genreIds.size(), duration, rows);
+
+        offsets.assign(n + 1, 0);
+        targets.reserve((size_t) rows.size() * MAX_EDGES);
+        weights.reserve((size_t) rows.size() * MAX_EDGES);
 
-        if (graph[i2].neighborCount < MAX_EDGES)
-            graph[i2].neighbors[graph[i2].neighborCount++] = songId1;
+        int next = 0;
+        for (int r : rows) {
+            for (; next <= r; next++) offsets[next] = (int) targets.size();
+
+            int have = nearest(byPair, pairOf[r], r, duration, MAX_EDGES, SAME_ARTIST_GENRE,
+                               [](int) { return false; }, targets, weights);
+            if (have < MAX_EDGES) {
+                have += nearest(byArtist, artistOf[r], r, duration, MAX_EDGES - have, SAME_ARTIST,
+                                [&](int c) { return genreOf[c] == genreOf[r]; }, targets, weights);
+            }
+            if (have < MAX_EDGES) {
+                nearest(byGenre, genreOf[r], r, duration, MAX_EDGES - have, SAME_GENRE,
+                        [&](int c) { return artistOf[c] == artistOf[r]; }, targets, weights);
+            }
+        }
+        for (; next <= n; next++) offsets[next] = (int) targets.size();
+    }
+
+    int getEdgeCount() const {
+        return (int) targets.size();
     }
 
-    // Return a list of recommended song IDs using BFS from startSongId
-    vector<int> getRecommendations(int startSongId) {
+    // Top `limit` song ids for startSongId, best first
+    vector<int> recommend(int startSongId, int limit, const Signals& signals) {
         vector<int> results;
-        bool visited[MAX_GRAPH_SONGS] = {false};
-        int queue[MAX_GRAPH_SONGS];
-        int front = 0, rear = 0;
+        if (db == nullptr || limit <= 0)
+            return results;
+        if (limit > MAX_RECOMMEND_LIMIT)
+            limit = MAX_RECOMMEND_LIMIT;
 
-        int startIndex = findNodeIndex(startSongId);
-        if (startIndex == -1)
+        int seed = db->indexOf(startSongId);
+        if (seed == -1 || seed + 1 >= (int) offsets.size())
             return results;
 
-        visited[startIndex] = true;
-        queue[rear++] = startIndex;
+        vector<int> rows;
+        walk(live, seed, limit, signals, rows);
+        for (int r : rows) results.push_back(db->getSongAt(r).songId);
+        return results;
+    }
 
-        while (front < rear) {
-            int current = queue[front++];
+    // Table-backed RECOMMEND; false when the table cannot answer yet
+    bool lookup(int startSongId, int limit, const Signals& signals, vector<int>& results) {
+        results.clear();
+        if (db == nullptr || limit <= 0 || limit > PRECOMPUTED_K)
+            return false;
 
-            for (int i = 0; i < graph[current].neighborCount; i++) {
-                int neighborSongId = graph[current].neighbors[i];
-                int neighborIndex = findNodeIndex(neighborSongId);
+        int seed = db->indexOf(startSongId);
+        if (seed == -1 || seed >= tableRows.load(memory_order_acquire))
+            return false;
 
-                if (neighborIndex != -1 && !visited[neighborIndex]) {
-                    visited[neighborIndex] = true;
-                    results.push_back(neighborSongId);
-                    queue[rear++] = neighborIndex;
+        // the user's own neighbours of the seed, heaviest link first
+        vector<pair<float, int>> personal;
+        auto extra = signals.extra.find(seed);
+        if (extra != signals.extra.end()) {
+            unordered_map<int, float> summed;
+            for (const auto& x : extra->second) summed[x.first] += x.second;
+            for (const auto& x : summed) {
+                float w = signals.favorites.count(x.first) ? x.second * FAVORITE_BOOST : x.second;
+                personal.push_back(make_pair(w, x.first));
+            }
+            sort(personal.begin(), personal.end(), [](const pair<float, int>& x, const pair<float, int>& y) {
+                return x.first != y.first ? x.first > y.first : x.second < y.second;
+            });
+        }
+
+        vector<int> rows;
+        for (const auto& p : personal) rows.push_back(p.second);
+
+        const int32_t* row = &table[(size_t) seed * PRECOMPUTED_K];
+        vector<int> favorites, others;
+        for (int i = 0; i < PRECOMPUTED_K && row[i] >= 0; i++) {
+            if (extra != signals.extra.end() && find(rows.begin(), rows.end(), row[i]) != rows.end())
+                continue;
+            (signals.favorites.count(row[i]) ? favorites : others).push_back(row[i]);
+        }
+        rows.insert(rows.end(), favorites.begin(), favorites.end());
+        rows.insert(rows.end(), others.begin(), others.end());
+
+        for (int i = 0; i < (int) rows.size() && i < limit; i++) {
+            results.push_back(db->getSongAt(rows[i]).songId);
+        }
+        return true;
+    }
+
+    // Loads the table from cacheFile when it matches catalogVersion,
+    // otherwise computes it on a background thread and saves it there
+    void startPrecompute(const string& cacheFile, const string& catalogVersion) {
+        stopPrecompute();
+        int n = (int) offsets.size() - 1;
+        if (db == nullptr || n <= 0)
+            return;
+
+        table.assign((size_t) n * PRECOMPUTED_K, -1);
+        if (loadTable(cacheFile, catalogVersion, n)) {
+            tableRows.store(n, memory_order_release);
+            cerr << "Recommendations loaded from " << cacheFile << endl;
+            return;
+        }
+
+        stopping = false;
+        worker = thread([this, cacheFile, catalogVersion, n]() {
+            auto started = chrono::steady_clock::now();
+            Walk scratch;
+            Signals none;
+            vector<int> rows;
+            for (int r = 0; r < n; r++) {
+                if (stopping.load(memory_order_relaxed))
+                    return;
+                walk(scratch, r, PRECOMPUTED_K, none, rows);
+                copy(rows.begin(), rows.end(), table.begin() + (size_t) r * PRECOMPUTED_K);
+                tableRows.store(r + 1, memory_order_release);
+            }
+
+            double ms = chrono::duration<double, milli>(chrono::steady_clock::now() - started).count();
+            cerr << "Precomputed recommendations for " << n << " songs in "
+                 << (long long) ms << " ms" << endl;
+            saveTable(cacheFile, catalogVersion, n);
+        });
+    }
+
+    void stopPrecompute() {
+        stopping = true;
+        if (worker.joinable())
+            worker.join();
+        tableRows.store(0, memory_order_release);
+    }
+
+    // Rows whose table entry is ready
+    int getPrecomputedRows() const {
+        return tableRows.load(memory_order_acquire);
+    }
+
+private:
+    // Personalized PageRank from `seed`; fills `out` with the best `limit` rows
+    void walk(Walk& w, int seed, int limit, const Signals& signals, vector<int>& out) const {
+        out.clear();
+        size_t nodes = offsets.size() - 1;
+        if (w.estimate.size() != nodes) {
+            w.estimate.assign(nodes, 0.0f);
+            w.residual.assign(nodes, 0.0f);
+            w.queued.assign(nodes, 0);
+        }
+
+        auto edgeWeight = [&](int to, float wt) {
+            return signals.favorites.count(to) ? wt * FAVORITE_BOOST : wt;
+        };
+
+        // larger pages need the walk to reach further out
+        const float threshold = EPSILON / limit;
+
+        w.work.clear();
+        w.residual[seed] = 1.0f;
+        w.queued[seed] = 1;
+        w.touched.push_back(seed);
+        w.work.push_back(seed);
+
+        int pushes = 0;
+        for (size_t head = 0; head < w.work.size() && pushes < MAX_PUSHES; head++, pushes++) {
+            int u = w.work[head];
+            w.queued[u] = 0;
+            float mass = w.residual[u];
+            w.residual[u] = 0.0f;
+            w.estimate[u] += RESTART * mass;
+
+            auto extra = signals.extra.find(u);
+            float total = 0.0f;
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) total += edgeWeight(targets[e], weights[e]);
+            if (extra != signals.extra.end()) {
+                for (const auto& x : extra->second) total += edgeWeight(x.first, x.second);
+            }
+            if (total <= 0.0f) {
+                w.estimate[u] += (1.0f - RESTART) * mass;   // dangling node keeps its mass
+                continue;
+            }
+
+            float spread = (1.0f - RESTART) * mass / total;
+            auto give = [&](int v, float wt) {
+                if (w.residual[v] == 0.0f && w.estimate[v] == 0.0f) w.touched.push_back(v);
+                w.residual[v] += spread * edgeWeight(v, wt);
+                if (!w.queued[v] && w.residual[v] >= threshold) {
+                    w.queued[v] = 1;
+                    w.work.push_back(v);
                 }
+            };
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) give(targets[e], weights[e]);
+            if (extra != signals.extra.end()) {
+                for (const auto& x : extra->second) give(x.first, x.second);
             }
         }
 
-        return results;
+        // min-heap of the best `limit` (score, row); ties favour lower rows
+        typedef pair<float, int> Scored;
+        auto worse = [](const Scored& x, const Scored& y) {
+            return x.first != y.first ? x.first > y.first : x.second < y.second;
+        };
+        priority_queue<Scored, vector<Scored>, decltype(worse)> best(worse);
+        for (int v : w.touched) {
+            float score = w.estimate[v] + w.residual[v];
+            if (v != seed && score > 0.0f) {
+                best.push(make_pair(score, v));
+                if ((int) best.size() > limit) best.pop();
+            }
+            w.estimate[v] = 0.0f;
+            w.residual[v] = 0.0f;
+            w.queued[v] = 0;
+        }
+        w.touched.clear();
+
+        out.resize(best.size());
+        for (int i = (int) best.size() - 1; i >= 0; i--) {
+            out[i] = best.top().second;
+            best.pop();
+        }
+    }
+
+    // Header: magic, format, K, rows, version length, version; then the table
+    bool loadTable(const string& cacheFile, const string& catalogVersion, int n) {
+        ifstream in(cacheFile, ios::binary);
+        if (!in.is_open())
+            return false;
+
+        uint32_t header[5];
+        if (!in.read((char*) header, sizeof(header)))
+            return false;
+        if (header[0] != CACHE_MAGIC || header[1] != CACHE_FORMAT || header[2] != PRECOMPUTED_K
+            || header[3] != (uint32_t) n || header[4] != catalogVersion.size())
+            return false;
+
+        string version(header[4], '\0');
+        if (!in.read(&version[0], version.size()) || version != catalogVersion)
+            return false;
+
+        if (!in.read((char*) table.data(), (streamsize) (table.size() * sizeof(int32_t))))
+            return false;
+
+        for (int32_t r : table) {
+            if (r < -1 || r >= n) return false;   // damaged file
+        }
+        return true;
+    }
+
+    // Each process writes its own temp file and moves it into place in one
+    // step, so concurrent writers never share a half-written file
+    void saveTable(const string& cacheFile, const string& catalogVersion, int n) {
+#ifdef _WIN32
+        string temp = cacheFile + "." + to_string(_getpid()) + ".tmp";
+#else
+        string temp = cacheFile + "." + to_string(getpid()) + ".tmp";
+#endif
+        {
+            ofstream out(temp, ios::binary | ios::trunc);
+            uint32_t header[5] = { CACHE_MAGIC, CACHE_FORMAT, PRECOMPUTED_K,
+                                   (uint32_t) n, (uint32_t) catalogVersion.size() };
+            out.write((const char*) header, sizeof(header));
+            out.write(catalogVersion.data(), catalogVersion.size());
+            out.write((const char*) table.data(), (streamsize) (table.size() * sizeof(int32_t)));
+            if (!out) {
+                cerr << "Could not write " << temp << endl;
+                out.close();
+                remove(temp.c_str());
+                return;
+            }
+        }
+#ifdef _WIN32
+        bool replaced = MoveFileExA(temp.c_str(), cacheFile.c_str(), MOVEFILE_REPLACE_EXISTING) != 0;
+#else
+        bool replaced = rename(temp.c_str(), cacheFile.c_str()) == 0;
+#endif
+        if (!replaced) {
+            cerr << "Could not replace " << cacheFile << endl;
+            remove(temp.c_str());
+        }
     }
 };
 
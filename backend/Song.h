@@ -2,6 +2,7 @@
 #define SONG_H
 
 #include <string>
+#include <string_view>
 using namespace std;
 
 struct Song {
@@ -15,4 +16,29 @@ struct Song {
     string dateAdded;      // YYYY-MM-DD
 };
 
+/*
+ * SongView
+ * Read-only view of one catalog row inside SongDatabase's storage.
+ * Cheap to copy; valid until the catalog is reloaded. Paths are kept
+ * split into a shared directory prefix and the file name.
+ */
+struct SongView {
+    int songId = -1;
+    string_view title;
+    string_view artist;
+    string_view genre;
+    int duration = 0;
+    string_view fileDir, fileName;      // filePath  = fileDir + fileName
+    string_view imageDir, imageName;    // imagePath = imageDir + imageName
+    string_view dateAdded;
+
+    string filePath() const {
+        return string(fileDir).append(fileName);
+    }
+
+    string imagePath() const {
+        return string(imageDir).append(imageName);
+    }
+};
+
 #endif
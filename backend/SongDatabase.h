@@ -1,68 +1,416 @@
 #ifndef SONGDATABASE_H
 #define SONGDATABASE_H
 
-#include <fstream>
-#include <sstream>
 #include <iostream>
+#include <cstring>
+#include <sys/stat.h>
+#include <cstdint>
+#include <algorithm>
+#include <deque>
+#include <vector>
+#include <unordered_map>
+#include <string_view>
+#include <thread>
+#include <chrono>
 #include "Song.h"
+#include "MappedFile.h"
 
 using namespace std;
 
-#define MAX_SONGS 1000
+/*
+ * StringPool
+ * Interns repeated strings (artists, genres, directories) so every
+ * distinct value is stored once and rows refer to it by a 32-bit id.
+ */
+
+class StringPool {
+private:
+    deque<string> values;                       // stable addresses for the keys below
+    unordered_map<string_view, uint32_t> ids;
+
+public:
+    uint32_t intern(string_view s) {
+        auto it = ids.find(s);
+        if (it != ids.end()) return it->second;
+        uint32_t id = (uint32_t) values.size();
+        values.emplace_back(s);
+        ids.emplace(string_view(values.back()), id);
+        return id;
+    }
+
+    string_view get(uint32_t id) const {
+        return values[id];
+    }
+
+    size_t size() const {
+        return values.size();
+    }
+
+    void clear() {
+        ids.clear();
+        values.clear();
+    }
+
+    size_t memoryBytes() const {
+        size_t bytes = values.size() * sizeof(string);
+        for (const string& v : values) {
+            if (v.capacity() > 15) bytes += v.capacity() + 1;   // beyond the inline buffer
+        }
+        bytes += ids.bucket_count() * sizeof(void*);
+        bytes += ids.size() * (sizeof(string_view) + sizeof(uint32_t) + 2 * sizeof(void*));
+        return bytes;
+    }
+};
+
+/*
+ * SongDatabase
+ * Growable, compact song catalog
+ *
+ * Rows are fixed-size records that hold numbers and ids only. Artist,
+ * genre and the directory part of both paths are interned in StringPools;
+ * title, file names and date of a row are packed back to back into one
+ * character arena. There is no row limit, and getSongAt / indexOf hand
+ * out SongViews into this storage instead of copying strings.
+ *
+ * loadFromCSV maps songs.csv, cuts it into line-aligned chunks and parses
+ * them on worker threads into private rows/arena/pools; the chunks are
+ * then appended in file order, so row order matches the file.
+ */
 
 class SongDatabase {
 private:
-    Song songs[MAX_SONGS];
-    int songCount;
+    struct Row {
+        int32_t songId;
+        int32_t duration;
+        uint32_t artist;        // id in names
+        uint32_t genre;         // id in names
+        uint32_t fileDir;       // id in dirs
+        uint32_t imageDir;      // id in dirs
+        uint64_t text;          // arena offset: title, file name, image name, date
+        uint16_t titleLen;
+        uint16_t fileLen;
+        uint16_t imageLen;
+        uint16_t dateLen;
+    };
+
+    vector<Row> rows;
+    string arena;
+    StringPool names;           // artists and genres
+    StringPool dirs;            // path prefixes
+    string version;             // "<mtime>-<size>" of the CSV last loaded
+
+    // songId -> row: a plain array when ids are dense (the usual case for
+    // scanner-assigned ids), a hash map otherwise
+    vector<int32_t> denseIndex;         // [songId - minId] -> row or -1
+    int minId = 0;
+    unordered_map<int, int> sparseIndex;
+
+    static uint16_t clampLen(size_t n) {
+        return (uint16_t) (n > 0xFFFF ? 0xFFFF : n);
+    }
+
+    // Splits after the last '/' or '\\': the directory is shared, the name is not
+    static size_t splitPath(string_view path) {
+        size_t slash = path.find_last_of("/\\");
+        return slash == string_view::npos ? 0 : slash + 1;
+    }
+
+    // Rows parsed by one loader thread, with ids local to its own pools
+    struct Chunk {
+        vector<Row> rows;
+        string arena;
+        StringPool names;
+        StringPool dirs;
+    };
+
+    static void packRow(vector<Row>& rows, string& arena, StringPool& names, StringPool& dirs,
+                        int songId, string_view title, string_view artist, string_view genre,
+                        int duration, string_view filePath, string_view imagePath, string_view dateAdded) {
+        Row r;
+        r.songId = songId;
+        r.duration = duration;
+        r.artist = names.intern(artist);
+        r.genre = names.intern(genre);
+
+        size_t fileCut = splitPath(filePath);
+        size_t imageCut = splitPath(imagePath);
+        r.fileDir = dirs.intern(filePath.substr(0, fileCut));
+        r.imageDir = dirs.intern(imagePath.substr(0, imageCut));
+
+        r.text = arena.size();
+        r.titleLen = clampLen(title.size());
+        r.fileLen = clampLen(filePath.size() - fileCut);
+        r.imageLen = clampLen(imagePath.size() - imageCut);
+        r.dateLen = clampLen(dateAdded.size());
+        arena.append(title.data(), r.titleLen);
+        arena.append(filePath.data() + fileCut, r.fileLen);
+        arena.append(imagePath.data() + imageCut, r.imageLen);
+        arena.append(dateAdded.data(), r.dateLen);
+
+        rows.push_back(r);
+    }
+
+    // Leading integer like stoi/atoi: optional blanks and sign, then digits
+    static bool parseInt(string_view s, int& out) {
+        size_t i = 0;
+        while (i < s.size() && (s[i] == ' ' || s[i] == '\t')) i++;
+        bool negative = false;
+        if (i < s.size() && (s[i] == '-' || s[i] == '+')) negative = (s[i++] == '-');
+
+        long long value = 0;
+        size_t start = i;
+        while (i < s.size() && s[i] >= '0' && s[i] <= '9' && value <= 0x7FFFFFFF) {
+            value = value * 10 + (s[i++] - '0');
+        }
+        if (i == start || value > 0x7FFFFFFF) return false;
+        out = (int) (negative ? -value : value);
+        return true;
+    }
+
+    // Next comma-separated field of `line`; empty once the line is used up
+    static string_view nextField(string_view& line) {
+        size_t comma = line.find(',');
+        string_view field = line.substr(0, comma);
+        line = (comma == string_view::npos) ? string_view() : line.substr(comma + 1);
+        return field;
+    }
+
+    // Parses every line in [begin, end); both ends sit on line starts
+    static void parseChunk(const char* begin, const char* end, Chunk& out) {
+        out.rows.reserve((size_t) (end - begin) / 96 + 16);
+        out.arena.reserve((size_t) (end - begin) / 2);
+
+        const char* p = begin;
+        while (p < end) {
+            const char* nl = (const char*) memchr(p, '\n', (size_t) (end - p));
+            const char* lineEnd = nl ? nl : end;
+            string_view line(p, (size_t) (lineEnd - p));
+            p = nl ? nl + 1 : end;
+
+            if (!line.empty() && line.back() == '\r') line.remove_suffix(1);
+
+            int songId;
+            if (!parseInt(nextField(line), songId)) continue;   // blank or malformed row
+
+            string_view title = nextField(line);
+            string_view artist = nextField(line);
+            string_view genre = nextField(line);
+            int duration = 0;
+            parseInt(nextField(line), duration);
+            string_view filePath = nextField(line);
+            string_view imagePath = nextField(line);
+            string_view dateAdded = nextField(line);
+
+            packRow(out.rows, out.arena, out.names, out.dirs,
+                    songId, title, artist, genre, duration, filePath, imagePath, dateAdded);
+        }
+    }
+
+    // Appends a parsed chunk, translating its pool ids and arena offsets
+    void appendChunk(Chunk& c) {
+        vector<uint32_t> nameIds(c.names.size());
+        for (uint32_t i = 0; i < nameIds.size(); i++) nameIds[i] = names.intern(c.names.get(i));
+        vector<uint32_t> dirIds(c.dirs.size());
+        for (uint32_t i = 0; i < dirIds.size(); i++) dirIds[i] = dirs.intern(c.dirs.get(i));
+
+        uint64_t base = arena.size();
+        arena.append(c.arena);
+        for (Row r : c.rows) {
+            r.artist = nameIds[r.artist];
+            r.genre = nameIds[r.genre];
+            r.fileDir = dirIds[r.fileDir];
+            r.imageDir = dirIds[r.imageDir];
+            r.text += base;
+            rows.push_back(r);
+        }
+
+        // release the chunk now rather than holding two copies of the catalog
+        vector<Row>().swap(c.rows);
+        string().swap(c.arena);
+        c.names.clear();
+        c.dirs.clear();
+    }
+
+    static unsigned loaderThreads(size_t bytes) {
+        const size_t MIN_CHUNK = 1 << 20;   // below this a thread costs more than it saves
+        unsigned hw = thread::hardware_concurrency();
+        if (hw == 0) hw = 2;
+        size_t byBytes = bytes / MIN_CHUNK + 1;
+        return (unsigned) min<size_t>(hw, byBytes);
+    }
 
 public:
     SongDatabase() {
-        songCount = 0;
+        version = "0";
+    }
+
+    // Changes whenever a different songs.csv has been loaded
+    const string& getVersion() const {
+        return version;
+    }
+
+    // "<mtime>-<size>" of fileName as it is on disk now, "" if missing
+    static string fileVersion(const string& fileName) {
+        struct stat st;
+        if (stat(fileName.c_str(), &st) != 0) return "";
+        return to_string((long long) st.st_mtime) + "-" + to_string((long long) st.st_size);
+    }
+
+    int getSongCount() const {
+        return (int) rows.size();
+    }
+
+    SongView getSongAt(int index) const {
+        const Row& r = rows[index];
+        const char* t = arena.data() + r.text;
+
+        SongView v;
+        v.songId = r.songId;
+        v.duration = r.duration;
+        v.artist = names.get(r.artist);
+        v.genre = names.get(r.genre);
+        v.fileDir = dirs.get(r.fileDir);
+        v.imageDir = dirs.get(r.imageDir);
+        v.title = string_view(t, r.titleLen);
+        t += r.titleLen;
+        v.fileName = string_view(t, r.fileLen);
+        t += r.fileLen;
+        v.imageName = string_view(t, r.imageLen);
+        t += r.imageLen;
+        v.dateAdded = string_view(t, r.dateLen);
+        return v;
+    }
+
+    // O(1) lookup; -1 when the id is not in the catalog
+    int indexOf(int songId) const {
+        if (!denseIndex.empty()) {
+            long long slot = (long long) songId - minId;
+            if (slot < 0 || slot >= (long long) denseIndex.size()) return -1;
+            return denseIndex[(size_t) slot];
+        }
+        auto it = sparseIndex.find(songId);
+        return it == sparseIndex.end() ? -1 : it->second;
+    }
+
+    void clear() {
+        rows.clear();
+        arena.clear();
+        names.clear();
+        dirs.clear();
+        denseIndex.clear();
+        sparseIndex.clear();
     }
 
-    int getSongCount() {
-        return songCount;
+    // Rebuilds the id index once all rows are in; first row wins on duplicate ids
+    void buildIndex() {
+        denseIndex.clear();
+        sparseIndex.clear();
+        if (rows.empty()) return;
+
+        int lo = rows[0].songId, hi = rows[0].songId;
+        for (const Row& r : rows) {
+            lo = min(lo, (int) r.songId);
+            hi = max(hi, (int) r.songId);
+        }
+
+        long long span = (long long) hi - lo + 1;
+        if (span <= 2 * (long long) rows.size() + 1024) {
+            minId = lo;
+            denseIndex.assign((size_t) span, -1);
+            for (int i = (int) rows.size() - 1; i >= 0; i--) {
+                denseIndex[(size_t) (rows[i].songId - lo)] = i;
+            }
+        } else {
+            sparseIndex.reserve(rows.size());
+            for (int i = 0; i < (int) rows.size(); i++) {
+                sparseIndex.emplace(rows[i].songId, i);
+            }
+        }
     }
 
-    Song getSongAt(int index) {
-        return songs[index];
+    void addSong(const Song& s) {
+        packRow(rows, arena, names, dirs,
+                s.songId, s.title, s.artist, s.genre, s.duration, s.filePath, s.imagePath, s.dateAdded);
+    }
+
+    // Approximate heap bytes held by the catalog
+    size_t memoryBytes() const {
+        return rows.capacity() * sizeof(Row)
+             + arena.capacity()
+             + names.memoryBytes()
+             + dirs.memoryBytes()
+             + denseIndex.capacity() * sizeof(int32_t)
+             + sparseIndex.bucket_count() * sizeof(void*)
+             + sparseIndex.size() * (2 * sizeof(int) + 2 * sizeof(void*));
+    }
+
+    // Single line for CATALOG_STATS
+    string describeFootprint() const {
+        return "songs=" + to_string(rows.size())
+             + " bytes=" + to_string(memoryBytes())
+             + " names=" + to_string(names.size())
+             + " dirs=" + to_string(dirs.size())
+             + " text=" + to_string(arena.size());
     }
 
     void loadFromCSV(const string& fileName) {
-        ifstream file(fileName);
-        if (!file.is_open()) {
-            cout << "Failed to open songs.csv" << endl;
+        auto started = chrono::steady_clock::now();
+
+        MappedFile file;
+        if (!file.open(fileName)) {
+            cerr << "Failed to open songs.csv" << endl;
             return;
         }
 
-        string line;
-        getline(file, line); // skip header
+        string onDisk = fileVersion(fileName);
+        if (!onDisk.empty()) version = onDisk;
 
-        while (getline(file, line) && songCount < MAX_SONGS) {
-            stringstream ss(line);
-            string temp;
+        clear();  // reload replaces the catalog instead of appending
 
-            Song s;
+        const char* data = file.data();
+        const char* end = data + file.size();
 
-            getline(ss, temp, ',');
-            s.songId = stoi(temp);
+        // skip header
+        const char* body = data ? (const char*) memchr(data, '\n', file.size()) : nullptr;
+        body = body ? body + 1 : end;
 
-            getline(ss, s.title, ',');
-            getline(ss, s.artist, ',');
-            getline(ss, s.genre, ',');
-
-            getline(ss, temp, ',');
-            s.duration = stoi(temp);
+        // line-aligned chunk boundaries
+        unsigned threadCount = loaderThreads((size_t) (end - body));
+        vector<const char*> cuts;
+        cuts.push_back(body);
+        for (unsigned i = 1; i < threadCount; i++) {
+            const char* at = body + (size_t) (end - body) * i / threadCount;
+            if (at < cuts.back()) at = cuts.back();
+            const char* nl = (const char*) memchr(at, '\n', (size_t) (end - at));
+            cuts.push_back(nl ? nl + 1 : end);
+        }
+        cuts.push_back(end);
 
-            getline(ss, s.filePath, ',');
-            getline(ss, s.imagePath, ',');
-            getline(ss, s.dateAdded, ',');
+        vector<Chunk> chunks(threadCount);
+        vector<thread> workers;
+        for (unsigned i = 1; i < threadCount; i++) {
+            workers.emplace_back(parseChunk, cuts[i], cuts[i + 1], ref(chunks[i]));
+        }
+        parseChunk(cuts[0], cuts[1], chunks[0]);
+        for (thread& t : workers) t.join();
 
-            songs[songCount++] = s;
+        size_t totalRows = 0, totalText = 0;
+        for (const Chunk& c : chunks) {
+            totalRows += c.rows.size();
+            totalText += c.arena.size();
         }
+        rows.reserve(totalRows);
+        arena.reserve(totalText);
+        for (Chunk& c : chunks) appendChunk(c);
 
         file.close();
-        cout << "Loaded " << songCount << " songs from CSV" << endl;
+        buildIndex();
+
+        double ms = chrono::duration<double, milli>(chrono::steady_clock::now() - started).count();
+        long long rate = ms > 0 ? (long long) (rows.size() * 1000.0 / ms) : 0;
+        cerr << "Loaded " << rows.size() << " songs in " << (long long) ms << " ms ("
+             << rate << " rows/s, " << threadCount << " threads, "
+             << memoryBytes() / 1024 << " KB)" << endl;
     }
 };
 
@@ -3,50 +3,75 @@
 
 #include <iostream>
 #include <string>
-#include "Song.h"
+#include <string_view>
+#include <vector>
+#include <algorithm>
+#include "SongDatabase.h"
 
 using namespace std;
 
+/*
+ * SongSearchBST
+ * Title -> catalog row lookup
+ *
+ * Nodes keep a view of the title and the row index instead of a copy of
+ * the Song. The tree is built balanced from the titles sorted once, so
+ * depth stays O(log n) even when songs.csv is already in title order.
+ */
+
 class SongSearchBST {
 private:
 
     struct BSTNode {
-    Song data;
+    string_view title;
+    int row;
     BSTNode* left;
     BSTNode* right;
 
-    BSTNode(Song s) {
-        data = s;
+    BSTNode(string_view t, int r) {
+        title = t;
+        row = r;
         left = NULL;
         right = NULL;
     }
 };
 
     BSTNode* root;
+    const SongDatabase* db;
 
-    BSTNode* insertNode(BSTNode* node, Song s) {
-        if (node == NULL)
-            return new BSTNode(s);
-
-        if (s.title < node->data.title)
-            node->left = insertNode(node->left, s);
-        else
-            node->right = insertNode(node->right, s);
+    BSTNode* buildBalanced(const vector<pair<string_view, int>>& sorted, int lo, int hi) {
+        if (lo > hi)
+            return NULL;
 
+        int mid = lo + (hi - lo) / 2;
+        BSTNode* node = new BSTNode(sorted[mid].first, sorted[mid].second);
+        node->left = buildBalanced(sorted, lo, mid - 1);
+        node->right = buildBalanced(sorted, mid + 1, hi);
         return node;
     }
 
-    BSTNode* searchNode(BSTNode* node, const string& title) {
+    void destroy(BSTNode* node) {
         if (node == NULL)
-            return NULL;
-
-        if (node->data.title == title)
-            return node;
+            return;
+        destroy(node->left);
+        destroy(node->right);
+        delete node;
+    }
 
-        if (title < node->data.title)
-            return searchNode(node->left, title);
-        else
-            return searchNode(node->right, title);
+    // Leftmost node with this title, so duplicates resolve to the first row
+    BSTNode* searchNode(BSTNode* node, string_view title) {
+        BSTNode* found = NULL;
+        while (node != NULL) {
+            if (title < node->title) {
+                node = node->left;
+            } else if (node->title < title) {
+                node = node->right;
+            } else {
+                found = node;
+                node = node->left;
+            }
+        }
+        return found;
     }
 
     void inorderTraversal(BSTNode* node) {
@@ -54,25 +79,44 @@ private:
             return;
 
         inorderTraversal(node->left);
-        cout << node->data.title << " - "
-             << node->data.artist << endl;
+        SongView s = db->getSongAt(node->row);
+        cout << s.title << " - "
+             << s.artist << endl;
         inorderTraversal(node->right);
     }
 
 public:
     SongSearchBST() {
         root = NULL;
+        db = NULL;
+    }
+
+    ~SongSearchBST() {
+        destroy(root);
     }
 
-    void insertSong(Song s) {
-        root = insertNode(root, s);
+    // Rebuilds the tree over every row of the catalog
+    void build(const SongDatabase& songs) {
+        destroy(root);
+        root = NULL;
+        db = &songs;
+
+        vector<pair<string_view, int>> sorted;
+        sorted.reserve(songs.getSongCount());
+        for (int i = 0; i < songs.getSongCount(); i++) {
+            sorted.push_back(make_pair(songs.getSongAt(i).title, i));
+        }
+        sort(sorted.begin(), sorted.end());   // stable by row for equal titles
+
+        root = buildBalanced(sorted, 0, (int) sorted.size() - 1);
     }
 
-    Song* searchByTitle(const string& title) {
+    // Catalog row of an exact title match, -1 when none
+    int searchByTitle(const string& title) {
         BSTNode* result = searchNode(root, title);
         if (result != NULL)
-            return &result->data;
-        return NULL;
+            return result->row;
+        return -1;
     }
 
     void displayAllSongsAZ() {
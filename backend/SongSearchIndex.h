@@ -0,0 +1,211 @@
+#ifndef SONGSEARCHINDEX_H
+#define SONGSEARCHINDEX_H
+
+#include <string>
+#include <vector>
+#include <map>
+#include <unordered_map>
+#include <algorithm>
+#include <cstdint>
+#include <cctype>
+#include "SongDatabase.h"
+
+using namespace std;
+
+/*
+ * SongSearchIndex
+ * Inverted index over title / artist / genre used by SEARCH
+ *
+ * Every field is split into lower-case word tokens. Distinct tokens are
+ * kept sorted, each with a posting list of (song index, fields) in song
+ * order. Query words of three or more characters are matched anywhere
+ * inside a token through a trigram index over the token dictionary;
+ * shorter words are matched as token prefixes. All query words must
+ * match, so the work done is proportional to the postings touched, not
+ * to the catalog size.
+ */
+
+class SongSearchIndex {
+private:
+    static const unsigned char FIELD_TITLE = 1;
+    static const unsigned char FIELD_ARTIST = 2;
+    static const unsigned char FIELD_GENRE = 4;
+
+    struct Posting {
+        int song;
+        unsigned char fields;
+    };
+
+    // (song index, score) sorted by song index
+    typedef vector<pair<int, int>> ScoredSet;
+
+    vector<string> terms;                          // sorted, distinct
+    vector<vector<Posting>> postings;              // parallel to terms
+    unordered_map<uint32_t, vector<int>> trigrams; // trigram -> term ids
+    vector<int> titleLength;                       // tie-breaker per song
+
+    static uint32_t trigramAt(const string& s, size_t i) {
+        return ((uint32_t) (unsigned char) s[i] << 16)
+             | ((uint32_t) (unsigned char) s[i + 1] << 8)
+             |  (uint32_t) (unsigned char) s[i + 2];
+    }
+
+    static int fieldWeight(unsigned char fields) {
+        if (fields & FIELD_TITLE) return 3;
+        if (fields & FIELD_ARTIST) return 2;
+        return 1;
+    }
+
+    static void addTokens(map<string, unsigned char>& seen, string_view text, unsigned char field) {
+        for (const string& t : tokenize(text)) seen[t] |= field;
+    }
+
+    // Candidate term ids for one query word
+    void matchingTerms(const string& word, vector<int>& out) const {
+        out.clear();
+        if (word.size() < 3) {
+            auto it = lower_bound(terms.begin(), terms.end(), word);
+            for (; it != terms.end() && it->compare(0, word.size(), word) == 0; ++it) {
+                out.push_back((int) (it - terms.begin()));
+            }
+            return;
+        }
+
+        // the rarest trigram of the word bounds the candidates
+        const vector<int>* best = nullptr;
+        for (size_t i = 0; i + 3 <= word.size(); i++) {
+            auto it = trigrams.find(trigramAt(word, i));
+            if (it == trigrams.end()) return;
+            if (!best || it->second.size() < best->size()) best = &it->second;
+        }
+        for (int t : *best) {
+            if (terms[t].find(word) != string::npos) out.push_back(t);
+        }
+    }
+
+    // Best score per song for one query word
+    ScoredSet scoreWord(const string& word) const {
+        vector<int> ids;
+        matchingTerms(word, ids);
+
+        ScoredSet hits;
+        for (int t : ids) {
+            const string& term = terms[t];
+            int kind = (term == word) ? 3 : (term.compare(0, word.size(), word) == 0 ? 2 : 1);
+            for (const Posting& p : postings[t]) {
+                // field first, then match kind: title > artist > genre,
+                // exact > prefix > substring within a field, never a tie
+                hits.push_back(make_pair(p.song, fieldWeight(p.fields) * 4 + kind));
+            }
+        }
+
+        sort(hits.begin(), hits.end());
+        ScoredSet best;
+        for (const auto& h : hits) {
+            if (!best.empty() && best.back().first == h.first) best.back().second = max(best.back().second, h.second);
+            else best.push_back(h);
+        }
+        return best;
+    }
+
+public:
+    // Lower-case words; bytes >= 0x80 (UTF-8) count as word characters
+    static vector<string> tokenize(string_view text) {
+        vector<string> out;
+        string cur;
+        for (char ch : text) {
+            unsigned char c = (unsigned char) ch;
+            if (isalnum(c) || c >= 0x80) {
+                cur += (char) tolower(c);
+            } else if (!cur.empty()) {
+                out.push_back(cur);
+                cur.clear();
+            }
+        }
+        if (!cur.empty()) out.push_back(cur);
+        return out;
+    }
+
+    void clear() {
+        terms.clear();
+        postings.clear();
+        trigrams.clear();
+        titleLength.clear();
+    }
+
+    void build(const SongDatabase& db) {
+        clear();
+        int count = db.getSongCount();
+
+        map<string, vector<Posting>> byTerm;
+        titleLength.resize(count);
+        for (int i = 0; i < count; i++) {
+            SongView s = db.getSongAt(i);
+            titleLength[i] = (int) s.title.size();
+
+            map<string, unsigned char> seen;
+            addTokens(seen, s.title, FIELD_TITLE);
+            addTokens(seen, s.artist, FIELD_ARTIST);
+            addTokens(seen, s.genre, FIELD_GENRE);
+            for (const auto& e : seen) byTerm[e.first].push_back(Posting{ i, e.second });
+        }
+
+        terms.reserve(byTerm.size());
+        postings.reserve(byTerm.size());
+        for (auto& e : byTerm) {
+            int id = (int) terms.size();
+            terms.push_back(e.first);
+            postings.push_back(move(e.second));
+
+            for (size_t i = 0; i + 3 <= e.first.size(); i++) {
+                vector<int>& list = trigrams[trigramAt(e.first, i)];
+                if (list.empty() || list.back() != id) list.push_back(id);
+            }
+        }
+    }
+
+    // Fills `out` with song indexes of page [offset, offset + limit) of the
+    // ranked matches and returns the total number of matches
+    int search(const string& query, int limit, int offset, vector<int>& out) const {
+        out.clear();
+        vector<string> words = tokenize(query);
+        if (words.empty()) return 0;
+
+        ScoredSet result = scoreWord(words[0]);
+        for (size_t w = 1; w < words.size() && !result.empty(); w++) {
+            ScoredSet next = scoreWord(words[w]);
+
+            // keep songs that match this word too, summing scores
+            ScoredSet merged;
+            size_t a = 0, b = 0;
+            while (a < result.size() && b < next.size()) {
+                if (result[a].first < next[b].first) a++;
+                else if (next[b].first < result[a].first) b++;
+                else {
+                    merged.push_back(make_pair(result[a].first, result[a].second + next[b].second));
+                    a++;
+                    b++;
+                }
+            }
+            result.swap(merged);
+        }
+
+        int total = (int) result.size();
+        if (offset < 0) offset = 0;
+        if (limit <= 0 || offset >= total) return total;
+
+        size_t end = (size_t) min(total, offset + limit);
+        auto better = [this](const pair<int, int>& x, const pair<int, int>& y) {
+            if (x.second != y.second) return x.second > y.second;
+            if (titleLength[x.first] != titleLength[y.first])
+                return titleLength[x.first] < titleLength[y.first];
+            return x.first < y.first;
+        };
+        partial_sort(result.begin(), result.begin() + end, result.end(), better);
+
+        for (size_t i = (size_t) offset; i < end; i++) out.push_back(result[i].first);
+        return total;
+    }
+};
+
+#endif
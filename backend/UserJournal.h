@@ -0,0 +1,233 @@
+#ifndef USERJOURNAL_H
+#define USERJOURNAL_H
+
+#include <cstdio>
+#include <cstdlib>
+#include <iostream>
+#include <string>
+#include <vector>
+#include <sstream>
+#include <istream>
+#include <chrono>
+
+#ifdef _WIN32
+#ifndef NOMINMAX
+#define NOMINMAX
+#endif
+#ifndef WIN32_LEAN_AND_MEAN
+#define WIN32_LEAN_AND_MEAN
+#endif
+#include <windows.h>
+#include <io.h>
+#else
+#include <unistd.h>
+#endif
+
+using namespace std;
+
+/*
+ * UserJournal
+ * Append-only change log for one user's favorites, recents and playlists
+ *
+ * Each change is one line "<seq> <op> <args>" appended to the file, so a
+ * change costs O(1) no matter how much the user has saved; a batch of
+ * changes goes out in one write. The managers'
+ * CSV files are snapshots that record the last seq they contain; on
+ * start-up the session replays only newer entries, then compacts by
+ * rewriting the snapshots and emptying the journal. A torn last line from
+ * a crash is ignored.
+ *
+ * How often the journal reaches the disk is set by SOUNDRAFT_JOURNAL_SYNC:
+ *   always  fsync after every change
+ *   batch   flush every change, fsync every BATCH_SIZE changes or
+ *           SYNC_INTERVAL_MS (default)
+ *   exit    buffer in the process, fsync on compaction and exit
+ */
+
+class UserJournal {
+public:
+    enum SyncPolicy { SYNC_ALWAYS, SYNC_BATCH, SYNC_EXIT };
+
+private:
+    static const int BATCH_SIZE = 32;
+    static const int SYNC_INTERVAL_MS = 1000;
+
+    string path;
+    FILE* file;
+    SyncPolicy policy;
+    long long nextSeq;
+    int entries;            // lines in the journal since the last compaction
+    int unsynced;
+    chrono::steady_clock::time_point lastSync;
+
+    static void syncFile(FILE* f) {
+        fflush(f);
+#ifdef _WIN32
+        _commit(_fileno(f));
+#else
+        fsync(fileno(f));
+#endif
+    }
+
+    void open(const char* mode) {
+        if (file != nullptr) fclose(file);
+        file = fopen(path.c_str(), mode);
+        if (file == nullptr) cerr << "Cannot open journal " << path << endl;
+    }
+
+public:
+    UserJournal(const string& fileName) {
+        path = fileName;
+        file = nullptr;
+        policy = policyFromEnvironment();
+        nextSeq = 1;
+        entries = 0;
+        unsynced = 0;
+        lastSync = chrono::steady_clock::now();
+    }
+
+    ~UserJournal() {
+        close();
+    }
+
+    UserJournal(const UserJournal&) = delete;
+    UserJournal& operator=(const UserJournal&) = delete;
+
+    static SyncPolicy policyFromEnvironment() {
+        const char* value = getenv("SOUNDRAFT_JOURNAL_SYNC");
+        string v = value ? value : "";
+        if (v == "always") return SYNC_ALWAYS;
+        if (v == "exit") return SYNC_EXIT;
+        return SYNC_BATCH;
+    }
+
+    // Calls apply(seq, op, args) for every complete entry; returns how many
+    // there were. Later appends continue after max(lastSeq, the entries).
+    template <typename Apply>
+    int replay(long long lastSeq, Apply apply) {
+        nextSeq = lastSeq + 1;
+        entries = 0;
+
+        FILE* in = fopen(path.c_str(), "rb");
+        if (in == nullptr) return 0;
+
+        string data;
+        char buf[65536];
+        size_t n;
+        while ((n = fread(buf, 1, sizeof(buf), in)) > 0) data.append(buf, n);
+        fclose(in);
+
+        size_t pos = 0;
+        while (true) {
+            size_t nl = data.find('\n', pos);
+            if (nl == string::npos) break;      // torn tail after a crash
+            istringstream line(data.substr(pos, nl - pos));
+            pos = nl + 1;
+
+            long long seq;
+            string op;
+            if (!(line >> seq >> op)) continue;
+            line.get();                         // the space before the args
+            apply(seq, op, line);
+            entries++;
+            if (seq >= nextSeq) nextSeq = seq + 1;
+        }
+        return entries;
+    }
+
+    // Appends one change and returns its seq
+    long long append(const string& opAndArgs) {
+        return append(vector<string>{opAndArgs});
+    }
+
+    // Appends several changes with a single write and at most one sync;
+    // returns the seq of the last one
+    long long append(const vector<string>& changes) {
+        if (file == nullptr) open("ab");
+        string lines;
+        for (const string& change : changes) {
+            lines += to_string(nextSeq++);
+            lines += ' ';
+            lines += change;
+            lines += '\n';
+        }
+        entries += (int) changes.size();
+        if (file == nullptr || changes.empty()) return nextSeq - 1;
+
+        fwrite(lines.data(), 1, lines.size(), file);
+
+        if (policy == SYNC_ALWAYS) {
+            syncFile(file);
+        } else if (policy == SYNC_BATCH) {
+            fflush(file);
+            unsynced += (int) changes.size();
+            auto now = chrono::steady_clock::now();
+            if (unsynced >= BATCH_SIZE
+                || now - lastSync >= chrono::milliseconds(SYNC_INTERVAL_MS)) {
+                syncFile(file);
+                unsynced = 0;
+                lastSync = now;
+            }
+        }
+        return nextSeq - 1;
+    }
+
+    // Seq of the newest change, recorded in snapshots on compaction
+    long long lastSeq() const {
+        return nextSeq - 1;
+    }
+
+    int size() const {
+        return entries;
+    }
+
+    // Drops every entry; call once the snapshots hold them
+    void reset() {
+        open("wb");
+        if (file != nullptr) syncFile(file);
+        entries = 0;
+        unsynced = 0;
+    }
+
+    void close() {
+        if (file == nullptr) return;
+        syncFile(file);
+        fclose(file);
+        file = nullptr;
+    }
+
+    // Writes to a temporary file, syncs it and moves it over `target`, so a
+    // crash leaves either the old or the new snapshot
+    static bool writeFileAtomically(const string& target, const string& contents) {
+        string temp = target + ".tmp";
+        FILE* out = fopen(temp.c_str(), "wb");
+        if (out == nullptr) return false;
+        bool ok = fwrite(contents.data(), 1, contents.size(), out) == contents.size();
+        syncFile(out);
+        fclose(out);
+        if (!ok) return false;
+#ifdef _WIN32
+        return MoveFileExA(temp.c_str(), target.c_str(),
+                           MOVEFILE_REPLACE_EXISTING | MOVEFILE_WRITE_THROUGH) != 0;
+#else
+        return rename(temp.c_str(), target.c_str()) == 0;
+#endif
+    }
+
+    // Snapshot files start with "#seq N"; files written before the journal
+    // existed have no header and count as seq 0
+    static long long readSnapshotSeq(istream& in) {
+        if (in.peek() != '#') return 0;
+        string header;
+        getline(in, header);
+        long long seq = 0;
+        sscanf(header.c_str(), "#seq %lld", &seq);
+        return seq;
+    }
+
+    static string snapshotHeader(long long seq) {
+        return "#seq " + to_string(seq) + "\n";
+    }
+};
+
+#endif
@@ -2,24 +2,171 @@
 #include <string>
 #include <fstream>
 #include <ctime>
+#include <cstdint>
+#include <cstdlib>
+#include <unordered_map>
+#include <sstream>
+#include <deque>
+#include <string_view>
+#include <algorithm>
 #include "BackendController.h"
 
+#ifdef _WIN32
+#include <io.h>
+#include <fcntl.h>
+#endif
+
 using namespace std;
 
+// ==================== BINARY CATALOG FRAME ====================
+// Sent for GET_ALL once a client has switched to "FORMAT BIN1".
+// All integers are little-endian int32:
+//   frameLength (bytes that follow)
+//   stringCount, then per string: byteLength, UTF-8 bytes
+//   songCount,   then per song:   songId, title, artist, genre,
+//                                 duration, filePath, imagePath
+// Text fields are indexes into the string table, so repeated artists,
+// genres and paths are sent once.
+
+static void putInt(string& buf, int32_t v) {
+    uint32_t u = (uint32_t) v;
+    buf.push_back((char) (u & 0xFF));
+    buf.push_back((char) ((u >> 8) & 0xFF));
+    buf.push_back((char) ((u >> 16) & 0xFF));
+    buf.push_back((char) ((u >> 24) & 0xFF));
+}
+
+static void writeCatalogFrame(BackendController& backend) {
+    string strings, records;
+    unordered_map<string_view, int32_t> table;  // views into the catalog or `joined`
+    deque<string> joined;                       // full paths built for this frame
+    int32_t stringCount = 0;
+
+    auto intern = [&](string_view s) -> int32_t {
+        auto it = table.find(s);
+        if (it != table.end()) return it->second;
+        putInt(strings, (int32_t) s.size());
+        strings.append(s.data(), s.size());
+        table.emplace(s, stringCount);
+        return stringCount++;
+    };
+
+    // catalog paths are stored split into directory and name
+    auto internPath = [&](string_view dir, string_view name) -> int32_t {
+        string full = string(dir).append(name);
+        auto it = table.find(full);
+        if (it != table.end()) return it->second;
+        joined.push_back(move(full));
+        return intern(joined.back());
+    };
+
+    int total = backend.getTotalSongs();
+    records.reserve((size_t) total * 7 * 4);
+    for (int i = 0; i < total; i++) {
+        SongView s = backend.getSongByIndex(i);
+        putInt(records, s.songId);
+        putInt(records, intern(s.title));
+        putInt(records, intern(s.artist));
+        putInt(records, intern(s.genre));
+        putInt(records, s.duration);
+        putInt(records, internPath(s.fileDir, s.fileName));
+        putInt(records, internPath(s.imageDir, s.imageName));
+    }
+
+    string frame;
+    putInt(frame, (int32_t) (4 + strings.size() + 4 + records.size()));
+    putInt(frame, stringCount);
+    frame += strings;
+    putInt(frame, total);
+    frame += records;
+
+    cout.write(frame.data(), frame.size());
+    cout.flush();
+}
+
+// One song as the text protocol's 7 comma-separated fields
+static void writeSongLine(const SongView& s) {
+    cout << s.songId << "," << s.title << "," << s.artist << ","
+         << s.genre << "," << s.duration << ","
+         << s.fileDir << s.fileName << "," << s.imageDir << s.imageName << '\n';
+}
+
+// Most songs one SEARCH / FAV_PAGE / PL_PAGE reply may carry
+static const int MAX_PAGE = 500;
+
+// Keeps a client's paging arguments within 0..MAX_PAGE and offset >= 0
+static void clampPage(int& offset, int& limit) {
+    if (offset < 0) offset = 0;
+    if (limit < 0) limit = 0;
+    if (limit > MAX_PAGE) limit = MAX_PAGE;
+}
+
+// "TOTAL n" then up to `limit` songs starting at `offset`, as for SEARCH.
+// `ids` already has ids missing from the catalog dropped (the controller
+// caches that list per session), so offsets match what the client has
+// already been shown and a page costs O(limit).
+static void writeSongPage(BackendController& backend, const vector<int>& ids,
+                          int offset, int limit) {
+    clampPage(offset, limit);
+
+    cout << "TOTAL " << ids.size() << '\n';
+    for (size_t i = offset; i < ids.size() && i < (size_t) offset + limit; i++) {
+        writeSongLine(backend.getSongById(ids[i]));
+    }
+    cout << "END" << endl;
+}
+
+// Song ids for the *_MANY commands: the rest of the command line
+static vector<int> readIdList(istream& in) {
+    string rest; getline(in, rest);
+    istringstream args(rest);
+    vector<int> ids;
+    int id;
+    while (args >> id) ids.push_back(id);
+    return ids;
+}
+
 int main() {
 
     ios::sync_with_stdio(false);   // REQUIRED FIX - no buffering
     cin.tie(nullptr);
     cout.tie(nullptr);
 
+#ifdef _WIN32
+    // binary frames must reach the pipe without \n -> \r\n translation
+    _setmode(_fileno(stdout), _O_BINARY);
+#endif
+
     BackendController backend;
-    cout << "READY" << endl;       // first handshake output
+    cout << "READY BIN1" << endl;  // first handshake output + wire formats
+
+    // Shared catalog is built once per process; commands sent meanwhile
+    // wait in the pipe. SET_USER then only switches the user session.
+    // SOUNDRAFT_ROLE=reader marks a read-only worker started by the bridge.
+    const char* role = getenv("SOUNDRAFT_ROLE");
+    backend.loadCatalog(!(role && string(role) == "reader"));
 
     string currentUser = "";
     string cmd;
+    bool binaryCatalog = false;
 
     while (cin >> cmd) {
 
+        // Pipelined clients tag every command as "@<id> CMD ...".
+        // Echo the tag as a header line so the bridge can match the
+        // response body that follows back to the request.
+        if (cmd[0] == '@') {
+            cout << cmd << '\n';
+            if (!(cin >> cmd)) break;
+        }
+
+        // Catalog reads and the version probe notice a rescanned songs.csv;
+        // read workers never see CATALOG_VERSION, so they check here too
+        if (cmd == "CATALOG_VERSION" || cmd == "GET_ALL" || cmd == "SEARCH"
+                || cmd == "GET_SONG" || cmd == "GET_SONGS") {
+            backend.reloadCatalogIfChanged();
+        }
+
         if (cmd == "SIGNUP") {
             string user, pass, fullname;
             cin >> user >> pass >> fullname;
@@ -44,45 +191,84 @@ int main() {
             cout << "OK" << endl;   // REQUIRED - prevents freeze
         }
 
+        else if (cmd == "PING") {
+            cout << "PONG" << endl;   // bridge heartbeat
+        }
+
+        else if (cmd == "FORMAT") {
+            string fmt; cin >> fmt;
+            if (fmt == "BIN1" || fmt == "TEXT") {
+                binaryCatalog = (fmt == "BIN1");
+                cout << "OK" << endl;
+            } else {
+                cout << "UNSUPPORTED" << endl;
+            }
+        }
+
         else if (cmd == "GET_ALL") {
+            if (binaryCatalog) {
+                writeCatalogFrame(backend);
+                continue;
+            }
             int total = backend.getTotalSongs();
             for (int i = 0; i < total; i++) {
-                Song s = backend.getSongByIndex(i);
+                SongView s = backend.getSongByIndex(i);
                 cout << s.songId << "," << s.title << "," << s.artist << ","
                      << s.genre << "," << s.duration << ","
-                     << s.filePath << "," << s.imagePath << "," << s.dateAdded << endl;
+                     << s.fileDir << s.fileName << "," << s.imageDir << s.imageName << ","
+                     << s.dateAdded << '\n';
             }
             cout << "END" << endl;
         }
 
+        else if (cmd == "CATALOG_VERSION") {
+            cout << backend.getCatalogVersion() << endl;
+        }
+
+        else if (cmd == "CATALOG_STATS") {
+            cout << backend.getCatalogStats() << endl;
+        }
+
         else if (cmd == "GET_SONG") {
             int id; cin >> id;
-            int total = backend.getTotalSongs();
-            bool found = false;
-            for (int i = 0; i < total; i++) {
-                Song s = backend.getSongByIndex(i);
-                if (s.songId == id) {
-                    cout << s.songId << "," << s.title << "," << s.artist << ","
-                        << s.genre << "," << s.duration << ","
-                        << s.filePath << "," << s.imagePath << endl;
-                    found = true;
-                    break;
-                }
+            SongView s = backend.getSongById(id);
+            if (s.songId != -1) {
+                writeSongLine(s);
+                cout.flush();
+            } else {
+                cout << "ERROR" << endl;
             }
-            if (!found) cout << "ERROR" << endl;
         }
 
-        else if (cmd == "SEARCH") {
-            string title; cin >> title;
-            Song* s = backend.searchSongByTitle(title);
-            if (s) {
-                cout << s->songId << "," << s->title << "," << s->artist << ","
-                     << s->genre << "," << s->duration << ","
-                     << s->filePath << "," << s->imagePath << endl;
+        else if (cmd == "GET_SONGS") {
+            // GET_SONGS <id> <id> ...  ->  the songs found, in order, then END
+            for (int id : readIdList(cin)) {
+                SongView s = backend.getSongById(id);
+                if (s.songId != -1) writeSongLine(s);
             }
             cout << "END" << endl;
         }
 
+        else if (cmd == "SEARCH") {
+            // SEARCH <limit> <offset> <query...>
+            // Both numbers are required: with a bare "SEARCH <query>" form a
+            // numeric query such as "7 11" would read as limit and offset.
+            // A malformed request gets an empty page.
+            string rest; getline(cin, rest);
+            istringstream args(rest);
+            int limit = 0, offset = 0;
+            string query;
+            if (args >> limit >> offset) getline(args, query);
+            else limit = offset = 0;
+            clampPage(offset, limit);
+
+            vector<int> page;
+            int total = backend.searchSongs(query, limit, offset, page);
+            cout << "TOTAL " << total << '\n';
+            for (int idx : page) writeSongLine(backend.getSongByIndex(idx));
+            cout << "END" << endl;
+        }
+
         else if (cmd == "PLAY") {
             int id; cin >> id;
             backend.songPlayed(id);
@@ -106,27 +292,38 @@ int main() {
             cout << (backend.isFavorite(id) ? "YES" : "NO") << endl;
         }
 
+        else if (cmd == "FAV_ADD_MANY") {
+            backend.addFavorites(readIdList(cin));
+            cout << "OK" << endl;
+        }
+
+        else if (cmd == "FAV_REMOVE_MANY") {
+            backend.removeFavorites(readIdList(cin));
+            cout << "OK" << endl;
+        }
+
+        else if (cmd == "FAV_CHECK_MANY") {
+            // FAV_CHECK_MANY <id> <id> ...  ->  one '1' / '0' per id, in order
+            string flags;
+            for (int id : readIdList(cin)) flags += backend.isFavorite(id) ? '1' : '0';
+            cout << flags << endl;
+        }
+
         else if (cmd == "FAV_LIST") {
             if (currentUser.empty()) { cout << "END" << endl; continue; }
-            string fname = "favorites_" + currentUser + ".csv";
-            ifstream f(fname);
-            int sid;
-            while (f.is_open() && (f >> sid)) {
-                int total = backend.getTotalSongs();
-                for (int i = 0; i < total; i++) {
-                    Song s = backend.getSongByIndex(i);
-                    if (s.songId == sid) {
-                        cout << s.songId << "," << s.title << "," << s.artist << ","
-                             << s.genre << "," << s.duration << ","
-                             << s.filePath << "," << s.imagePath << endl;
-                        break;
-                    }
-                }
+            for (int sid : backend.getFavoriteIds()) {
+                SongView s = backend.getSongById(sid);
+                if (s.songId != -1) writeSongLine(s);
             }
-            if (f.is_open()) f.close();
             cout << "END" << endl;
         }
 
+        else if (cmd == "FAV_PAGE") {
+            // FAV_PAGE <offset> <limit>  ->  favorites in song id order
+            int offset = 0, limit = 0; cin >> offset >> limit;
+            writeSongPage(backend, backend.getFavoritePageIds(), offset, limit);
+        }
+
         else if (cmd == "PL_CREATE") {
             int pid; cin >> pid;
             string name;
@@ -142,20 +339,29 @@ int main() {
             cout << "OK" << endl;
         }
 
+        else if (cmd == "PL_ADD_MANY") {
+            // PL_ADD_MANY <playlistId> <id> <id> ...
+            int pid; cin >> pid;
+            backend.addSongsToPlaylist(pid, readIdList(cin));
+            cout << "OK" << endl;
+        }
+
         else if (cmd == "PL_GET") {
             int pid; cin >> pid;
             vector<int> songs = backend.getPlaylistSongIds(pid);
             for (int rid : songs) {
-                Song s = backend.getSongById(rid);
-                if (s.songId == rid && s.songId != -1) {
-                    cout << s.songId << "," << s.title << "," << s.artist << ","
-                         << s.genre << "," << s.duration << ","
-                         << s.filePath << "," << s.imagePath << endl;
-                }
+                SongView s = backend.getSongById(rid);
+                if (s.songId != -1) writeSongLine(s);
             }
             cout << "END" << endl;
         }
 
+        else if (cmd == "PL_PAGE") {
+            // PL_PAGE <playlistId> <offset> <limit>  ->  songs in playlist order
+            int pid = 0, offset = 0, limit = 0; cin >> pid >> offset >> limit;
+            writeSongPage(backend, backend.getPlaylistPageIds(pid), offset, limit);
+        }
+
         else if (cmd == "PL_REMOVE") {
             int pid, sid; cin >> pid >> sid;
             backend.removeSongFromPlaylist(pid, sid);
@@ -172,15 +378,16 @@ int main() {
         }
 
         else if (cmd == "RECOMMEND") {
-            int id; cin >> id;
-            vector<int> recs = backend.recommendFromSong(id);
+            // RECOMMEND <songId> [limit]
+            string rest; getline(cin, rest);
+            istringstream args(rest);
+            int id = -1, limit = MAX_RECOMMENDATIONS;
+            args >> id;
+            if (!(args >> limit)) limit = MAX_RECOMMENDATIONS;
+            vector<int> recs = backend.recommendFromSong(id, limit);
             for (int rid : recs) {
-                Song s = backend.getSongById(rid);
-                if (s.songId == rid && s.songId != -1) {
-                    cout << s.songId << "," << s.title << "," << s.artist << ","
-                         << s.genre << "," << s.duration << ","
-                         << s.filePath << "," << s.imagePath << endl;
-                }
+                SongView s = backend.getSongById(rid);
+                if (s.songId != -1) writeSongLine(s);
             }
             cout << "END" << endl;
         }
@@ -189,12 +396,8 @@ int main() {
             if (currentUser.empty()) { cout << "END" << endl; continue; }
             vector<int> recs = backend.getRecentSongIds();
             for (int rid : recs) {
-                Song s = backend.getSongById(rid);
-                if (s.songId == rid && s.songId != -1) {
-                    cout << s.songId << "," << s.title << "," << s.artist << ","
-                         << s.genre << "," << s.duration << ","
-                         << s.filePath << "," << s.imagePath << endl;
-                }
+                SongView s = backend.getSongById(rid);
+                if (s.songId != -1) writeSongLine(s);
             }
             cout << "END" << endl;
         }
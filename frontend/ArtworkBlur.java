@@ -0,0 +1,148 @@
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.*;
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+ * ArtworkBlur
+ * Blurred cover backdrops for the player, computed once per song.
+ *
+ * The blur scales the cover down to BLUR_WIDTH and runs PASSES separable
+ * box blurs directly on the raster's int[] with running sums, reusing one
+ * scratch buffer, so the cost no longer depends on the radius. Results are
+ * kept in a small in-memory LRU keyed by cover path and modification time,
+ * and written to the app's covers/cache directory (-Dsoundraft.artwork.blurDir)
+ * rather than next to the cover, so a song played in an earlier session is
+ * not blurred again until its cover changes.
+ */
+public class ArtworkBlur {
+
+    private static final int BLUR_WIDTH = 100;
+    private static final int RADIUS = 8;
+    private static final int PASSES = 6;
+    private static final int MEMORY_ENTRIES = 32;
+
+    private static final File CACHE_DIR = new File(System.getProperty("soundraft.artwork.blurDir",
+            "C:/Users/PMLS/Desktop/Music Streaming Platform/covers/cache"));
+
+    // "<cover path>|<mtime>", so a replaced cover or a song pointed at a
+    // different one misses
+    private static final Map<String, BufferedImage> memory =
+            new LinkedHashMap<String, BufferedImage>(MEMORY_ENTRIES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, BufferedImage> eldest) {
+                    return size() > MEMORY_ENTRIES;
+                }
+            };
+
+    // Shared by all blurs; guarded by the class lock
+    private static int[] scratch = new int[0];
+
+    // ==================== CACHED ACCESS ====================
+
+    // Blurred backdrop for a song; songId <= 0 or a null coverPath skip the caches
+    public static BufferedImage forSong(int songId, BufferedImage cover, String coverPath) {
+        if (cover == null) return null;
+        if (songId <= 0 || coverPath == null) return blur(cover);
+
+        File coverFile = new File(coverPath);
+        String key = coverFile.getAbsolutePath() + "|" + coverFile.lastModified();
+        synchronized (memory) {
+            BufferedImage hit = memory.get(key);
+            if (hit != null) return hit;
+        }
+
+        // the path hash keeps songs that switch covers from sharing a file
+        File diskFile = new File(CACHE_DIR,
+                songId + "-" + Integer.toHexString(coverFile.getAbsolutePath().hashCode()) + ".blur.png");
+
+        BufferedImage result = readDisk(diskFile, coverFile);
+        if (result == null) {
+            result = blur(cover);
+            writeDisk(diskFile, result);
+        }
+
+        synchronized (memory) {
+            memory.put(key, result);
+        }
+        return result;
+    }
+
+    private static BufferedImage readDisk(File diskFile, File coverFile) {
+        if (!diskFile.isFile()) return null;
+        if (diskFile.lastModified() < coverFile.lastModified()) return null;    // cover replaced
+        try {
+            return ImageIO.read(diskFile);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static void writeDisk(File diskFile, BufferedImage image) {
+        try {
+            CACHE_DIR.mkdirs();
+            ImageIO.write(image, "png", diskFile);
+        } catch (Exception e) {
+            // read-only cache folder: the memory cache still applies
+        }
+    }
+
+    // ==================== BLUR ====================
+
+    public static BufferedImage blur(BufferedImage source) {
+        int w = BLUR_WIDTH;
+        int h = Math.max(1, (int) (source.getHeight() * ((double) BLUR_WIDTH / source.getWidth())));
+
+        // First, scale down the image for faster blur
+        BufferedImage small = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = small.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(source, 0, 0, w, h, null);
+        g.dispose();
+
+        int[] pixels = ((DataBufferInt) small.getRaster().getDataBuffer()).getData();
+        synchronized (ArtworkBlur.class) {
+            if (scratch.length < pixels.length) scratch = new int[pixels.length];
+
+            // each half pass blurs rows and writes them transposed, so two
+            // half passes give one horizontal + vertical box blur in place
+            for (int i = 0; i < PASSES; i++) {
+                blurRowsTransposed(pixels, scratch, w, h, RADIUS);
+                blurRowsTransposed(scratch, pixels, h, w, RADIUS);
+            }
+        }
+        return small;
+    }
+
+    // Box blur along each row of a w x h image into out as an h x w image,
+    // edges clamped like the original per-pixel kernel
+    private static void blurRowsTransposed(int[] in, int[] out, int w, int h, int radius) {
+        int div = 2 * radius + 1;
+
+        for (int y = 0; y < h; y++) {
+            int row = y * w;
+            int sa = 0, sr = 0, sg = 0, sb = 0;
+
+            for (int i = -radius; i <= radius; i++) {
+                int p = in[row + Math.max(0, Math.min(w - 1, i))];
+                sa += p >>> 24;
+                sr += (p >> 16) & 0xFF;
+                sg += (p >> 8) & 0xFF;
+                sb += p & 0xFF;
+            }
+
+            for (int x = 0; x < w; x++) {
+                out[x * h + y] = ((sa / div) << 24) | ((sr / div) << 16) | ((sg / div) << 8) | (sb / div);
+
+                int add = in[row + Math.min(w - 1, x + radius + 1)];
+                int rem = in[row + Math.max(0, x - radius)];
+                sa += (add >>> 24) - (rem >>> 24);
+                sr += ((add >> 16) & 0xFF) - ((rem >> 16) & 0xFF);
+                sg += ((add >> 8) & 0xFF) - ((rem >> 8) & 0xFF);
+                sb += (add & 0xFF) - (rem & 0xFF);
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.swing.SwingUtilities;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/*
+ * ArtworkLoader
+ * Shared cover thumbnails for every component that shows album art.
+ *
+ * Covers are decoded on a small background pool, subsampled while reading
+ * and center-cropped to the requested square size, then kept in an LRU bounded by
+ * pixel bytes (-Dsoundraft.artwork.cacheMB, default 32) keyed by
+ * (songId, size). Concurrent requests for the same key share one decode,
+ * and callbacks always run on the EDT so cards can simply repaint.
+ * Recycled cards pass a stillNeeded check, so covers of cards that were
+ * scrolled past before their turn in the queue are never decoded.
+ */
+public class ArtworkLoader {
+
+    private static final long MAX_BYTES =
+            Math.max(1, Integer.getInteger("soundraft.artwork.cacheMB", 32)) * 1024L * 1024L;
+    private static final int THREADS = 2;
+
+    private static final class Key {
+        final int songId;
+        final int size;
+
+        Key(int songId, int size) {
+            this.songId = songId;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return k.songId == songId && k.size == size;
+        }
+
+        @Override
+        public int hashCode() {
+            return songId * 31 + size;
+        }
+    }
+
+    private static final class Waiter {
+        final Consumer<BufferedImage> onLoaded;
+        final BooleanSupplier stillNeeded;
+
+        Waiter(Consumer<BufferedImage> onLoaded, BooleanSupplier stillNeeded) {
+            this.onLoaded = onLoaded;
+            this.stillNeeded = stillNeeded;
+        }
+    }
+
+    // guarded by the class lock
+    private static final LinkedHashMap<Key, BufferedImage> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private static final Map<Key, List<Waiter>> inFlight = new HashMap<>();
+    private static long cachedBytes = 0;
+
+    private static final ExecutorService pool = Executors.newFixedThreadPool(THREADS, r -> {
+        Thread t = new Thread(r, "artwork-loader");
+        t.setDaemon(true);
+        t.setPriority(Thread.NORM_PRIORITY - 1);
+        return t;
+    });
+
+    // ==================== ACCESS ====================
+
+    public static synchronized BufferedImage getCached(int songId, int size) {
+        return cache.get(new Key(songId, size));
+    }
+
+    // Delivers the thumbnail on the EDT: immediately when cached, otherwise
+    // once decoded. Nothing is delivered when the cover cannot be read.
+    public static void request(int songId, String imagePath, int size, Consumer<BufferedImage> onLoaded) {
+        request(songId, imagePath, size, onLoaded, () -> true);
+    }
+
+    // Same, but the decode is skipped when no waiting caller still needs it
+    // by the time a worker picks it up. stillNeeded runs on a worker thread.
+    public static void request(int songId, String imagePath, int size,
+                               Consumer<BufferedImage> onLoaded, BooleanSupplier stillNeeded) {
+        if (imagePath == null || imagePath.trim().isEmpty()) return;
+        Key key = new Key(songId, size);
+
+        synchronized (ArtworkLoader.class) {
+            BufferedImage hit = cache.get(key);
+            if (hit != null) {
+                deliver(onLoaded, hit);
+                return;
+            }
+            List<Waiter> waiting = inFlight.get(key);
+            if (waiting != null) {
+                waiting.add(new Waiter(onLoaded, stillNeeded));
+                return;
+            }
+            waiting = new ArrayList<>();
+            waiting.add(new Waiter(onLoaded, stillNeeded));
+            inFlight.put(key, waiting);
+        }
+
+        pool.execute(() -> {
+            synchronized (ArtworkLoader.class) {
+                boolean needed = false;
+                for (Waiter w : inFlight.get(key)) needed |= w.stillNeeded.getAsBoolean();
+                if (!needed) {
+                    inFlight.remove(key);
+                    return;
+                }
+            }
+
+            BufferedImage img = decode(new File(imagePath), size);
+            List<Waiter> callbacks;
+            synchronized (ArtworkLoader.class) {
+                callbacks = inFlight.remove(key);
+                if (img != null) put(key, img);
+            }
+            if (img == null) return;
+            for (Waiter w : callbacks) deliver(w.onLoaded, img);
+        });
+    }
+
+    // Blocking variant for code that already runs off the EDT
+    public static BufferedImage load(int songId, String imagePath, int size) {
+        if (imagePath == null || imagePath.trim().isEmpty()) return null;
+        Key key = new Key(songId, size);
+
+        BufferedImage img = getCached(songId, size);
+        if (img != null) return img;
+
+        img = decode(new File(imagePath), size);
+        if (img != null) {
+            synchronized (ArtworkLoader.class) {
+                put(key, img);
+            }
+        }
+        return img;
+    }
+
+    private static void deliver(Consumer<BufferedImage> c, BufferedImage img) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            c.accept(img);
+        } else {
+            SwingUtilities.invokeLater(() -> c.accept(img));
+        }
+    }
+
+    private static void put(Key key, BufferedImage img) {
+        BufferedImage old = cache.put(key, img);
+        if (old != null) cachedBytes -= bytesOf(old);
+        cachedBytes += bytesOf(img);
+
+        Iterator<BufferedImage> it = cache.values().iterator();
+        while (cachedBytes > MAX_BYTES && it.hasNext()) {
+            BufferedImage eldest = it.next();
+            if (eldest == img) break;
+            cachedBytes -= bytesOf(eldest);
+            it.remove();
+        }
+    }
+
+    private static long bytesOf(BufferedImage img) {
+        return (long) img.getWidth() * img.getHeight() * 4;
+    }
+
+    // ==================== DECODING ====================
+
+    // Reads the cover subsampled to roughly twice the target size, then
+    // scales it to a size x size thumbnail; null when unreadable
+    private static BufferedImage decode(File file, int size) {
+        if (!file.isFile()) return null;
+
+        try (ImageInputStream iis = ImageIO.createImageInputStream(file)) {
+            if (iis == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) return null;
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int w = reader.getWidth(0);
+                int h = reader.getHeight(0);
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int sub = Math.max(1, Math.min(w, h) / (size * 2));
+                if (sub > 1) param.setSourceSubsampling(sub, sub, 0, 0);
+
+                return scale(reader.read(0, param), size);
+            } finally {
+                reader.dispose();
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to load artwork " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Center-crops the largest square out of src and scales it to size x
+    // size, so non-square covers keep their proportions instead of stretching
+    private static BufferedImage scale(BufferedImage src, int size) {
+        int type = src.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage out = new BufferedImage(size, size, type);
+        Graphics2D g = out.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        int side = Math.min(src.getWidth(), src.getHeight());
+        int sx = (src.getWidth() - side) / 2;
+        int sy = (src.getHeight() - side) / 2;
+        g.drawImage(src, 0, 0, size, size, sx, sy, sx + side, sy + side, null);
+        g.dispose();
+        return out;
+    }
+}
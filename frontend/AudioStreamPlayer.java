@@ -0,0 +1,507 @@
+import javax.sound.sampled.*;
+import java.io.*;
+import java.util.ArrayDeque;
+
+/*
+ * AudioStreamPlayer
+ * Streams one audio file to a SourceDataLine instead of decoding it into a Clip.
+ *
+ * A decoder thread converts the file to 16-bit PCM into a small bounded ring
+ * buffer and an output thread drains that buffer into the line, so playback
+ * starts after the first chunk and memory per track stays constant.
+ * Seeking restarts the decoder at the target frame; every restart bumps a
+ * generation number so data from an abandoned decode is never played.
+ *
+ * For gapless playback the next track can be preloaded: its decoder is
+ * opened and its first PRELOAD_MILLIS decoded ahead of time, and when the
+ * current file runs out the decoder keeps feeding the same ring and line
+ * from the preloaded stream. The listener hears onTrackChanged once the
+ * line actually reaches the first frame of the new track.
+ */
+public class AudioStreamPlayer {
+
+    public interface Listener {
+        void onEnd();
+        void onTrackChanged(File file);
+        void onError(Exception e);
+    }
+
+    // Next track opened and partly decoded ahead of the handover
+    private static final class Preloaded {
+        final File file;
+        final long durationMicros;
+        final AudioInputStream stream;
+        final byte[] head;
+        final int headLen;
+
+        Preloaded(File file, long durationMicros, AudioInputStream stream, byte[] head, int headLen) {
+            this.file = file;
+            this.durationMicros = durationMicros;
+            this.stream = stream;
+            this.head = head;
+            this.headLen = headLen;
+        }
+    }
+
+    // Line frame at which a preloaded track starts playing
+    private static final class Transition {
+        final long lineFrame;
+        final File file;
+        final long durationMicros;
+
+        Transition(long lineFrame, File file, long durationMicros) {
+            this.lineFrame = lineFrame;
+            this.file = file;
+            this.durationMicros = durationMicros;
+        }
+    }
+
+    private static final int RING_MILLIS = 1000;   // decoded audio buffered ahead
+    private static final int LINE_MILLIS = 250;    // audio queued in the device
+    private static final int PRELOAD_MILLIS = 500; // next track decoded before handover
+    private static final int CHUNK_BYTES = 16 * 1024;
+    private static final int OUTPUT_POLL_MS = 5;     // wait for line space while full or paused
+
+    private volatile File file;
+    private final AudioFormat format;
+    private volatile long durationMicros;
+    private final SourceDataLine line;
+    private final FloatControl gain;
+    private final PcmRingBuffer ring;
+    private final Object lock = new Object();
+
+    private Listener listener;
+    private Thread outputThread;
+    private volatile boolean paused = false;
+    private volatile boolean closed = false;
+
+    // guarded by lock
+    private Preloaded next;
+    private final ArrayDeque<Transition> transitions = new ArrayDeque<>();
+
+    // frame the current decode started at and the line position at that moment
+    private volatile long startFrame = 0;
+    private volatile long lineFrameBase = 0;
+
+    private AudioStreamPlayer(File file, AudioFormat format, long durationMicros, SourceDataLine line) {
+        this.file = file;
+        this.format = format;
+        this.durationMicros = durationMicros;
+        this.line = line;
+        this.gain = line.isControlSupported(FloatControl.Type.MASTER_GAIN)
+                ? (FloatControl) line.getControl(FloatControl.Type.MASTER_GAIN)
+                : null;
+        int ringBytes = bytesFor(format, RING_MILLIS);
+        this.ring = new PcmRingBuffer(ringBytes, format.getFrameSize());
+    }
+
+    // ==================== OPEN ====================
+
+    // Reads only the header and opens the output line; no audio is decoded yet
+    public static AudioStreamPlayer open(File file) throws IOException, UnsupportedAudioFileException, LineUnavailableException {
+        AudioFileFormat fileFormat = AudioSystem.getAudioFileFormat(file);
+        AudioFormat pcm = pcmFormat(fileFormat.getFormat());
+        SourceDataLine line = AudioSystem.getSourceDataLine(pcm);
+        line.open(pcm, bytesFor(pcm, LINE_MILLIS));
+        return new AudioStreamPlayer(file, pcm, durationOf(fileFormat), line);
+    }
+
+    private static long durationOf(AudioFileFormat fileFormat) {
+        Object d = fileFormat.properties().get("duration");
+        if (d instanceof Long) return (Long) d;
+        if (fileFormat.getFrameLength() > 0) {
+            return (long) (fileFormat.getFrameLength() * 1_000_000L
+                    / fileFormat.getFormat().getFrameRate());
+        }
+        return -1;
+    }
+
+    private static AudioFormat pcmFormat(AudioFormat base) {
+        return new AudioFormat(
+                AudioFormat.Encoding.PCM_SIGNED,
+                base.getSampleRate(),
+                16,
+                base.getChannels(),
+                base.getChannels() * 2,
+                base.getSampleRate(),
+                false
+        );
+    }
+
+    private static int bytesFor(AudioFormat f, int millis) {
+        int frames = Math.max(1, (int) (f.getFrameRate() * millis / 1000));
+        return frames * f.getFrameSize();
+    }
+
+    private AudioInputStream openDecoded(File f) throws IOException, UnsupportedAudioFileException {
+        AudioInputStream raw = AudioSystem.getAudioInputStream(f);
+        return AudioSystem.getAudioInputStream(format, raw);
+    }
+
+    // ==================== GAPLESS ====================
+
+    // Opens the next track and decodes its first PRELOAD_MILLIS so the
+    // handover needs no I/O. Blocking; call it off the EDT. Returns false
+    // when the file cannot be chained into this line (different sample
+    // rate or channels) and the caller has to start a new player instead.
+    public boolean preloadNext(File nextFile) {
+        AudioInputStream in = null;
+        try {
+            AudioFileFormat fileFormat = AudioSystem.getAudioFileFormat(nextFile);
+            if (!format.matches(pcmFormat(fileFormat.getFormat()))) return false;
+
+            in = openDecoded(nextFile);
+            byte[] head = new byte[bytesFor(format, PRELOAD_MILLIS)];
+            int len = 0;
+            int n;
+            while (len < head.length && (n = in.read(head, len, head.length - len)) != -1) {
+                len += n;
+            }
+            len -= len % format.getFrameSize();
+
+            Preloaded p = new Preloaded(nextFile, durationOf(fileFormat), in, head, len);
+            synchronized (lock) {
+                if (closed) return false;
+                closeQuietly(next);
+                next = p;
+            }
+            in = null;
+            return true;
+        } catch (Exception e) {
+            return false;
+        } finally {
+            if (in != null) {
+                try { in.close(); } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    // True while a preloaded track is waiting or already queued in the line
+    public boolean hasNext() {
+        synchronized (lock) {
+            return next != null || !transitions.isEmpty();
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    // Hands the preloaded stream to the decoder once the current file ends;
+    // the boundary is recorded in line frames so the switch is sample exact
+    private Preloaded takeNext(int gen, long boundaryLineFrame) {
+        synchronized (lock) {
+            if (closed || !ring.isCurrent(gen) || next == null) return null;
+            Preloaded p = next;
+            next = null;
+            transitions.add(new Transition(boundaryLineFrame, p.file, p.durationMicros));
+            return p;
+        }
+    }
+
+    // Moves position bookkeeping to the next track once the line plays past a boundary
+    private void checkTransitions() {
+        Transition reached = null;
+        synchronized (lock) {
+            long pos = line.getLongFramePosition();
+            while (!transitions.isEmpty() && pos >= transitions.peek().lineFrame) {
+                reached = transitions.poll();
+                startFrame = 0;
+                lineFrameBase = reached.lineFrame;
+                file = reached.file;
+                durationMicros = reached.durationMicros;
+            }
+        }
+        Listener l = listener;
+        if (reached != null && l != null && !closed) l.onTrackChanged(reached.file);
+    }
+
+    private static void closeQuietly(Preloaded p) {
+        if (p == null) return;
+        try {
+            p.stream.close();
+        } catch (IOException ignored) {}
+    }
+
+    // ==================== CONTROL ====================
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public FloatControl getGainControl() {
+        return gain;
+    }
+
+    // -1 when the container does not say
+    public long getDurationMicros() {
+        return durationMicros;
+    }
+
+    public void play() {
+        seek(0);
+    }
+
+    public void pause() {
+        synchronized (lock) {
+            if (closed || paused) return;
+            paused = true;
+            line.stop();
+        }
+    }
+
+    public void resume() {
+        synchronized (lock) {
+            if (closed || !paused) return;
+            paused = false;
+            line.start();
+        }
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public void seek(long micros) {
+        synchronized (lock) {
+            if (closed) return;
+
+            long frame = Math.max(0, (long) (micros / 1_000_000.0 * format.getFrameRate()));
+            int gen = ring.reset();
+
+            line.stop();
+            line.flush();
+            transitions.clear();    // queued handovers went out with the flushed audio
+            startFrame = frame;
+            lineFrameBase = line.getLongFramePosition();
+
+            long base = lineFrameBase;
+            Thread decoder = new Thread(() -> decode(gen, frame, base), "audio-decoder");
+            decoder.setDaemon(true);
+            decoder.start();
+
+            if (outputThread == null || !outputThread.isAlive()) {
+                outputThread = new Thread(this::output, "audio-output");
+                outputThread.setDaemon(true);
+                outputThread.start();
+            }
+
+            if (!paused) line.start();
+        }
+    }
+
+    public long getMicrosecondPosition() {
+        long frames = startFrame + (line.getLongFramePosition() - lineFrameBase);
+        return (long) (frames * 1_000_000.0 / format.getFrameRate());
+    }
+
+    public void close() {
+        synchronized (lock) {
+            if (closed) return;
+            closed = true;
+            closeQuietly(next);
+            next = null;
+            transitions.clear();
+            ring.close();
+            line.stop();
+            line.flush();
+            line.close();
+        }
+    }
+
+    // ==================== WORKER THREADS ====================
+
+    private void decode(int gen, long fromFrame, long lineBase) {
+        AudioInputStream in = null;
+        try {
+            in = openDecoded(file);
+            long skip = fromFrame * format.getFrameSize();
+            while (skip > 0) {
+                long n = in.skip(skip);
+                if (n <= 0) break;
+                skip -= n;
+            }
+
+            byte[] buf = new byte[CHUNK_BYTES];
+            long written = 0;    // bytes handed to the ring in this generation
+            while (true) {
+                int n;
+                while ((n = in.read(buf)) != -1) {
+                    if (!ring.write(gen, buf, 0, n)) return;    // superseded by a seek
+                    written += n;
+                }
+                in.close();
+                in = null;
+
+                // keep going with the preloaded track, if any, without a gap
+                long boundary = lineBase + written / format.getFrameSize();
+                Preloaded p = takeNext(gen, boundary);
+                if (p == null) break;
+                in = p.stream;
+                if (!ring.write(gen, p.head, 0, p.headLen)) return;
+                written += p.headLen;
+            }
+        } catch (Exception e) {
+            Listener l = listener;
+            if (l != null && ring.isCurrent(gen) && !closed) l.onError(e);
+        } finally {
+            if (in != null) {
+                try { in.close(); } catch (IOException ignored) {}
+            }
+            ring.finish(gen);
+        }
+    }
+
+    private void output() {
+        byte[] chunk = new byte[CHUNK_BYTES];
+        while (!closed) {
+            int gen = ring.generation();
+            int n = ring.read(chunk, gen);
+            if (n == PcmRingBuffer.STALE) continue;
+            if (n > 0) {
+                writeToLine(gen, chunk, n);
+                checkTransitions();
+                continue;
+            }
+            if (n == PcmRingBuffer.CLOSED) return;
+
+            // current decode finished and everything was handed to the line
+            line.drain();
+            checkTransitions();
+            Listener l = listener;
+            if (!closed && ring.isCurrent(gen) && ring.isFinished() && l != null) {
+                l.onEnd();
+                return;
+            }
+        }
+    }
+
+    // Hands a chunk to the line in pieces that fit without blocking, each
+    // under `lock` after checking its generation. seek() flushes under the
+    // same lock, so audio read before a seek can never reach the line
+    // after it and shift lineFrameBase.
+    private void writeToLine(int gen, byte[] chunk, int len) {
+        int frameSize = format.getFrameSize();
+        int off = 0;
+        while (off < len) {
+            synchronized (lock) {
+                if (closed || !ring.isCurrent(gen)) return;     // dropped by seek() or close()
+                int room = Math.min(line.available(), len - off);
+                room -= room % frameSize;
+                if (room > 0) off += line.write(chunk, off, room);
+            }
+            if (off < len) {
+                try {
+                    Thread.sleep(OUTPUT_POLL_MS);     // line full or paused
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // ==================== RING BUFFER ====================
+
+    // Bounded byte FIFO between the decoder and output threads.
+    // Reads are frame aligned so the line never sees half a sample.
+    private static final class PcmRingBuffer {
+        static final int CLOSED = -2;
+        static final int STALE = -3;
+        static final int FINISHED = -1;
+
+        private final byte[] data;
+        private final int frameSize;
+        private int head = 0;
+        private int size = 0;
+        private int generation = 0;
+        private boolean finished = false;
+        private boolean closed = false;
+
+        PcmRingBuffer(int capacity, int frameSize) {
+            this.data = new byte[Math.max(capacity, frameSize * 64)];
+            this.frameSize = frameSize;
+        }
+
+        // Drops buffered audio and starts a new generation
+        synchronized int reset() {
+            generation++;
+            head = 0;
+            size = 0;
+            finished = false;
+            notifyAll();
+            return generation;
+        }
+
+        synchronized int generation() {
+            return generation;
+        }
+
+        synchronized boolean isCurrent(int gen) {
+            return gen == generation;
+        }
+
+        synchronized boolean isFinished() {
+            return finished && size == 0;
+        }
+
+        synchronized void finish(int gen) {
+            if (gen != generation) return;
+            finished = true;
+            notifyAll();
+        }
+
+        synchronized void close() {
+            closed = true;
+            notifyAll();
+        }
+
+        // Blocks while full; false once the writer's generation is stale
+        synchronized boolean write(int gen, byte[] src, int off, int len) {
+            while (len > 0) {
+                while (size == data.length && gen == generation && !closed) {
+                    waitQuietly();
+                }
+                if (gen != generation || closed) return false;
+
+                int tail = (head + size) % data.length;
+                int n = Math.min(len, Math.min(data.length - size, data.length - tail));
+                System.arraycopy(src, off, data, tail, n);
+                size += n;
+                off += n;
+                len -= n;
+                notifyAll();
+            }
+            return true;
+        }
+
+        // Blocks until at least one frame of generation gen is available;
+        // FINISHED when that decode is drained, STALE once a reset replaced
+        // gen, CLOSED when the player shut down
+        synchronized int read(byte[] dst, int gen) {
+            while (size < frameSize && !finished && !closed && gen == generation) {
+                waitQuietly();
+            }
+            if (closed) return CLOSED;
+            if (gen != generation) return STALE;
+            if (size < frameSize) return FINISHED;
+
+            int n = Math.min(size, dst.length);
+            n -= n % frameSize;
+            int first = Math.min(n, data.length - head);
+            System.arraycopy(data, head, dst, 0, first);
+            System.arraycopy(data, 0, dst, first, n - first);
+            head = (head + n) % data.length;
+            size -= n;
+            notifyAll();
+            return n;
+        }
+
+        private void waitQuietly() {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -1,54 +1,360 @@
-import java.io.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 public class BackendBridge {
 
-    private static Process backend;
-    private static PrintWriter out;
-    private static BufferedReader in;
+    private static final String BACKEND_EXE = System.getProperty(
+            "soundraft.backend.path",
+            "C:/Users/PMLS/Desktop/Music Streaming Platform/backend.exe");
+
+    // Extra backend processes that serve read-only commands (0 = owner only)
+    private static final int READ_WORKERS =
+            Math.max(0, Integer.getInteger("soundraft.backend.workers", 0));
+
+    // Bulk catalog transfer as a binary frame when the backend offers it
+    private static final boolean BINARY_CATALOG =
+            Boolean.parseBoolean(System.getProperty("soundraft.backend.binary", "true"));
+
+    // Commands that neither change nor read user state and may run on any
+    // worker. RECOMMEND is personalised from the owner's live session.
+    private static final Set<String> READ_ONLY_COMMANDS =
+            Set.of("GET_ALL", "SEARCH", "GET_SONG", "GET_SONGS");
+
+    // Backend default for RECOMMEND without a limit
+    private static final int DEFAULT_RECOMMEND_LIMIT = 20;
+
+    // Deadlines in ms (0 = none). SET_USER and GET_ALL get the longer one:
+    // a fresh backend answers them only after loading the catalog.
+    private static final long TIMEOUT_MS =
+            Math.max(0, Integer.getInteger("soundraft.backend.timeoutMs", 8000));
+    private static final long LOAD_TIMEOUT_MS =
+            Math.max(0, Integer.getInteger("soundraft.backend.loadTimeoutMs", 30000));
+    private static final long START_TIMEOUT_MS =
+            Math.max(0, Integer.getInteger("soundraft.backend.startTimeoutMs", 10000));
+
+    // Supervisor: health check period, how long a backend may sit on a
+    // request without sending anything, and the restart backoff ceiling
+    private static final long HEARTBEAT_MS =
+            Math.max(100, Integer.getInteger("soundraft.backend.heartbeatMs", 1000));
+    private static final long HANG_MS =
+            Math.max(0, Integer.getInteger("soundraft.backend.hangMs", 15000));
+    private static final long MAX_BACKOFF_MS =
+            Math.max(250, Integer.getInteger("soundraft.backend.maxBackoffMs", 30000));
+    private static final long FIRST_BACKOFF_MS = 250;
+    private static final long STABLE_MS = 60000;   // up this long, a crash starts the backoff over
+
+    public enum State {
+        STOPPED,        // not started yet, or shut down
+        STARTING,
+        RUNNING,
+        RECONNECTING    // the backend died or hung; restarting with backoff
+    }
+
+    // Owner process: receives every write and all per-user commands
+    private static volatile BackendConnection backend;
+    private static volatile List<BackendConnection> readers = List.of();
+
+    private static volatile State state = State.STOPPED;
+    private static final List<Consumer<State>> stateListeners = new CopyOnWriteArrayList<>();
+    private static volatile String currentUser;    // replayed into restarted backends
+    private static String ownerUser;                // session the owner holds (class lock)
+
+    private static final Object supervisorLock = new Object();
+    private static Thread supervisor;
+    private static int restartAttempts = 0;
+    private static long nextRestartNanos = 0;
+    private static long ownerStartedNanos = 0;
 
     // ==================== PROCESS CONTROL ====================
 
     public static void startBackend() {
-        if (backend != null && backend.isAlive()) return;
-
-        try {
-            backend = new ProcessBuilder("C:/Users/PMLS/Desktop/Music Streaming Platform/backend.exe")
-                    .redirectErrorStream(true)
-                    .start();
-
-            out = new PrintWriter(
-                    new OutputStreamWriter(backend.getOutputStream()), true);
-            in = new BufferedReader(
-                    new InputStreamReader(backend.getInputStream()));
-
-            // wait for READY
-            String line = in.readLine();
-            if (!"READY".equals(line)) {
-                throw new RuntimeException("Backend not ready: " + line);
+        // while the supervisor is restarting it, callers fail fast instead
+        if (isRunning() || state == State.RECONNECTING) return;
+
+        synchronized (BackendBridge.class) {
+            if (isRunning() || state == State.RECONNECTING) return;
+
+            long start = System.nanoTime();
+            setState(State.STARTING);
+            startSupervisor();
+            List<BackendConnection> pool = new ArrayList<>();
+            try {
+                String user = currentUser;
+                backend = launch(user);
+                ownerUser = user;
+                ownerStartedNanos = System.nanoTime();
+
+                for (int i = 0; i < READ_WORKERS; i++) {
+                    pool.add(launchWorker());
+                }
+                closeAll(readers);
+                readers = List.copyOf(pool);
+                setState(State.RUNNING);
+            } catch (Exception e) {
+                if (backend != null) backend.kill("start failed");
+                backend = null;
+                closeAll(pool);
+
+                // the supervisor keeps trying in the background
+                scheduleRestart();
+                setState(State.RECONNECTING);
+                throw new RuntimeException("Backend start failed", e);
+            } finally {
+                EdtWatchdog.blockingCall("BackendBridge startBackend", start);
             }
-
-        } catch (Exception e) {
-            throw new RuntimeException("Backend start failed", e);
         }
     }
 
     public static boolean isRunning() {
-        return backend != null && backend.isAlive();
+        BackendConnection b = backend;
+        return b != null && b.isAlive();
     }
 
-    public static void shutdown() {
-        if (!isRunning()) return;
-        send("EXIT");
-        backend.destroy();
+    public static State getState() {
+        return state;
+    }
+
+    // Listeners run on the thread that changed the state; UI code should
+    // use BackendClient.onStateChange, which delivers on the EDT
+    public static void addStateListener(Consumer<State> listener) {
+        stateListeners.add(listener);
+    }
+
+    public static void removeStateListener(Consumer<State> listener) {
+        stateListeners.remove(listener);
+    }
+
+    private static void setState(State next) {
+        if (state == next) return;
+        state = next;
+        for (Consumer<State> l : stateListeners) l.accept(next);
+    }
+
+    public static synchronized void shutdown() {
+        setState(State.STOPPED);
+        if (backend != null) backend.close();
         backend = null;
+        ownerUser = null;
+        closeAll(readers);
+        readers = List.of();
+    }
+
+    private static void closeAll(List<BackendConnection> pool) {
+        for (BackendConnection c : pool) c.close();
+    }
+
+    // A new owner process, with `user`'s session restored when there is one
+    private static BackendConnection launch(String user) throws IOException {
+        BackendConnection c = BackendConnection.start(BACKEND_EXE, BINARY_CATALOG, START_TIMEOUT_MS, false);
+        if (user != null && !user.isEmpty() && !"OK".equals(applyUser(c, user))) {
+            c.kill("did not accept SET_USER");
+            throw new IOException("SET_USER replay failed");
+        }
+        return c;
+    }
+
+    // A read-only worker: no session and no recommendation precompute
+    private static BackendConnection launchWorker() throws IOException {
+        return BackendConnection.start(BACKEND_EXE, BINARY_CATALOG, START_TIMEOUT_MS, true);
     }
 
+    // Only the owner holds a session. Workers serve READ_ONLY_COMMANDS,
+    // which need none, and opening one there would replay and compact the
+    // journal the owner is appending to.
+    //
+    // The SET_USER round trip (up to LOAD_TIMEOUT_MS) runs outside the
+    // class lock so the supervisor can still fail over a hung owner. A
+    // backend started here already replays currentUser, so it is not sent
+    // twice.
     public static void setUser(String user) {
-    if (!isRunning()) startBackend();
-    String result = send("SET_USER " + user);
-    System.out.println("SET_USER -> " + result);
-}
+        currentUser = user;
+        if (!isRunning()) startBackend();
+
+        BackendConnection owner;
+        boolean applied;
+        synchronized (BackendBridge.class) {
+            owner = backend;
+            applied = owner != null && user.equals(ownerUser);
+        }
+
+        String result;
+        if (owner == null) {
+            result = "ERROR";       // restarting; the supervisor replays currentUser
+        } else if (applied) {
+            result = "OK";
+        } else {
+            result = applyUser(owner, user);
+            if ("OK".equals(result)) {
+                synchronized (BackendBridge.class) {
+                    if (backend == owner) ownerUser = user;
+                }
+            }
+        }
+        System.out.println("SET_USER -> " + result);
+
+        // a (re)started backend may have loaded a newer songs.csv
+        SongCatalog.invalidate();
+    }
+
+    // SET_USER on the owner; its answer
+    private static String applyUser(BackendConnection owner, String user) {
+        long start = System.nanoTime();
+        try {
+            return owner.request("SET_USER " + user, LOAD_TIMEOUT_MS).join();
+        } catch (CompletionException e) {
+            return "ERROR";
+        } finally {
+            EdtWatchdog.blockingCall("BackendBridge SET_USER", start);
+        }
+    }
+
+    // ==================== SUPERVISOR ====================
+
+    // One daemon thread checks the processes every HEARTBEAT_MS: an idle
+    // backend is sent a PING, and a dead or wedged one is killed and
+    // restarted with exponential backoff. Calls made while the owner is
+    // down fail at once rather than waiting for it.
+    private static void startSupervisor() {
+        if (supervisor != null) return;
+        supervisor = new Thread(BackendBridge::supervise, "backend-supervisor");
+        supervisor.setDaemon(true);
+        supervisor.start();
+    }
+
+    // Checks right away instead of at the next heartbeat
+    private static void wakeSupervisor() {
+        synchronized (supervisorLock) {
+            supervisorLock.notifyAll();
+        }
+    }
+
+    private static void supervise() {
+        while (true) {
+            synchronized (supervisorLock) {
+                try {
+                    supervisorLock.wait(HEARTBEAT_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            try {
+                if (state == State.RUNNING) checkHealth();
+                else if (state == State.RECONNECTING && System.nanoTime() >= nextRestartNanos) restart();
+            } catch (RuntimeException e) {
+                System.err.println("[backend] supervisor: " + e);
+            }
+        }
+    }
+
+    private static void checkHealth() {
+        BackendConnection owner = backend;
+        String problem = owner == null ? "not running" : owner.problem(HANG_MS);
+        if (problem != null) {
+            ownerFailed(owner, problem);
+            return;
+        }
+        if (owner.inFlight() == 0) owner.ping();
+
+        for (BackendConnection r : readers) {
+            problem = r.problem(HANG_MS);
+            if (problem == null) {
+                if (r.inFlight() == 0) r.ping();
+            } else {
+                replaceWorker(r, problem);
+            }
+        }
+    }
+
+    private static synchronized void ownerFailed(BackendConnection owner, String problem) {
+        if (backend != owner || state != State.RUNNING) return;
+        System.err.println("[backend] " + problem + "; restarting");
+        if (owner != null) owner.kill(problem);
+        backend = null;
+
+        if ((System.nanoTime() - ownerStartedNanos) / 1_000_000 >= STABLE_MS) restartAttempts = 0;
+        scheduleRestart();
+        setState(State.RECONNECTING);
+    }
+
+    private static void scheduleRestart() {
+        long delay = Math.min(MAX_BACKOFF_MS, FIRST_BACKOFF_MS << Math.min(restartAttempts, 16));
+        restartAttempts++;
+        nextRestartNanos = System.nanoTime() + delay * 1_000_000;
+    }
+
+    // Runs on the supervisor; the new process is started, and its session
+    // opened, outside the lock so callers are never held up by a slow start
+    private static void restart() {
+        String user = currentUser;
+        BackendConnection fresh;
+        try {
+            fresh = launch(user);
+        } catch (IOException e) {
+            synchronized (BackendBridge.class) {
+                scheduleRestart();
+            }
+            System.err.println("[backend] restart failed: " + e.getMessage());
+            return;
+        }
+
+        while (true) {
+            synchronized (BackendBridge.class) {
+                if (state != State.RECONNECTING) {
+                    fresh.close();  // shut down meanwhile
+                    return;
+                }
+                if (Objects.equals(user, currentUser)) {
+                    backend = fresh;
+                    ownerUser = user;
+                    ownerStartedNanos = System.nanoTime();
+                    setState(State.RUNNING);
+                    break;
+                }
+            }
+
+            // the user switched while the process was starting
+            user = currentUser;
+            if (user != null && !user.isEmpty() && !"OK".equals(applyUser(fresh, user))) {
+                fresh.kill("did not accept SET_USER");
+                synchronized (BackendBridge.class) {
+                    scheduleRestart();
+                }
+                System.err.println("[backend] restart failed: SET_USER replay failed");
+                return;
+            }
+        }
+        System.err.println("[backend] restarted");
+        SongCatalog.invalidate();
+    }
+
+    private static void replaceWorker(BackendConnection worker, String problem) {
+        System.err.println("[backend] worker " + problem + "; restarting it");
+        worker.kill(problem);
+
+        BackendConnection fresh;
+        try {
+            fresh = launchWorker();
+        } catch (IOException e) {
+            return;     // still dead, so the next check tries again
+        }
+
+        synchronized (BackendBridge.class) {
+            int index = readers.indexOf(worker);
+            if (state != State.RUNNING || index < 0) {
+                fresh.close();
+                return;
+            }
+            List<BackendConnection> pool = new ArrayList<>(readers);
+            pool.set(index, fresh);
+            readers = List.copyOf(pool);
+        }
+    }
 
     public static boolean signupFull(String fullname, String user, String pass){
     if(!isRunning()) startBackend();
@@ -76,49 +382,154 @@ public class BackendBridge {
 
     // ==================== CORE COMM ====================
 
+    // The owner, started on first use; null while the supervisor is
+    // restarting it
+    private static BackendConnection connection() {
+        BackendConnection b = backend;
+        if (b != null && b.isAlive()) return b;
+
+        if (state == State.STOPPED) {
+            startBackend();
+            return backend;
+        }
+        wakeSupervisor();
+        return null;
+    }
+
+    // Read-only commands go to the least busy live worker, falling back
+    // to the owner when no pool is configured or every worker is down.
+    // Workers keep serving them while the owner restarts.
+    private static BackendConnection connectionFor(String cmd) {
+        BackendConnection owner = connection();
+        if (!READ_ONLY_COMMANDS.contains(name(cmd))) return owner;
+
+        BackendConnection best = owner;
+        for (BackendConnection r : readers) {
+            if (r.isAlive() && (best == null || r.inFlight() < best.inFlight())) best = r;
+        }
+        return best;
+    }
+
+    private static String name(String cmd) {
+        int space = cmd.indexOf(' ');
+        return space < 0 ? cmd : cmd.substring(0, space);
+    }
+
+    private static long timeoutFor(String cmd) {
+        String name = name(cmd);
+        return name.equals("GET_ALL") || name.equals("SET_USER") ? LOAD_TIMEOUT_MS : TIMEOUT_MS;
+    }
+
+    private static <T> CompletableFuture<T> unavailable() {
+        return CompletableFuture.failedFuture(new IOException("Backend unavailable (" + state + ")"));
+    }
+
+    // Commands are pipelined: the *Async variants return as soon as the
+    // command is written, so several can share one round trip. Each one
+    // fails after its deadline instead of waiting on a stuck backend.
+    private static CompletableFuture<String> sendAsync(String cmd) {
+        BackendConnection c = connectionFor(cmd);
+        return c != null ? c.request(cmd, timeoutFor(cmd)) : unavailable();
+    }
+
+    private static CompletableFuture<List<String>> sendMultiAsync(String cmd) {
+        BackendConnection c = connectionFor(cmd);
+        return c != null ? c.requestMulti(cmd, timeoutFor(cmd)) : unavailable();
+    }
+
+    // Blocking helpers; UI code should go through BackendClient instead
     private static String send(String cmd) {
-        out.println(cmd);
+        long start = System.nanoTime();
         try {
-            return in.readLine();
-        } catch (IOException e) {
+            return sendAsync(cmd).join();
+        } catch (CompletionException e) {
             return "ERROR";
+        } finally {
+            EdtWatchdog.blockingCall(commandName(cmd), start);
         }
     }
 
     private static List<String> sendMulti(String cmd) {
-        List<String> lines = new ArrayList<>();
-        out.println(cmd);
-
+        long start = System.nanoTime();
         try {
-            String line;
-            while ((line = in.readLine()) != null) {
-                if ("END".equals(line)) break;
-                lines.add(line);
-            }
-        } catch (IOException ignored) {}
+            return sendMultiAsync(cmd).join();
+        } catch (CompletionException e) {
+            return new ArrayList<>();
+        } finally {
+            EdtWatchdog.blockingCall(commandName(cmd), start);
+        }
+    }
+
+    // Only the name is logged: LOGIN and SIGNUP carry credentials
+    private static String commandName(String cmd) {
+        return "BackendBridge " + name(cmd);
+    }
 
-        return lines;
+    private static CompletableFuture<List<SongDTO>> songsAsync(String cmd) {
+        return sendMultiAsync(cmd)
+                .thenApply(BackendBridge::parseSongs)
+                .exceptionally(e -> new ArrayList<>());
     }
 
     // ==================== SONGS ====================
 
     public static List<SongDTO> getAllSongs() {
-        return parseSongs(sendMulti("GET_ALL"));
+        try {
+            return getAllSongsAsync().join();
+        } catch (CompletionException e) {
+            return new ArrayList<>();
+        }
+    }
+
+    // Completes exceptionally when the backend could not answer, so an
+    // outage is never mistaken for an empty catalog
+    public static CompletableFuture<List<SongDTO>> getAllSongsAsync() {
+        BackendConnection c = connectionFor("GET_ALL");
+        if (c == null) return unavailable();
+        return c.hasBinaryCatalog()
+                ? c.requestFrame("GET_ALL", LOAD_TIMEOUT_MS).thenApply(BackendBridge::decodeSongFrame)
+                : c.requestMulti("GET_ALL", LOAD_TIMEOUT_MS).thenApply(BackendBridge::parseSongs);
+    }
+
+    public static CompletableFuture<String> getCatalogVersionAsync() {
+        return sendAsync("CATALOG_VERSION");
     }
 
     public static List<SongDTO> searchSongs(String query) {
-        return parseSongs(sendMulti("SEARCH " + query));
+        SearchPage page = searchAsync(query, 50, 0).join();
+        return page != null ? page.songs : new ArrayList<>();
+    }
+
+    // Ranked title/artist/genre search done by the backend; completes with
+    // null when the backend could not answer
+    public static CompletableFuture<SearchPage> searchAsync(String query, int limit, int offset) {
+        String q = query.replace('\n', ' ').replace('\r', ' ').trim();
+        return pageAsync("SEARCH " + limit + " " + offset + " " + q, offset);
+    }
+
+    // Parses a "TOTAL n" + songs + END page; null when the backend could not answer
+    private static CompletableFuture<SearchPage> pageAsync(String cmd, int offset) {
+        return sendMultiAsync(cmd)
+                .thenApply(lines -> {
+                    int total = 0;
+                    if (!lines.isEmpty() && lines.get(0).startsWith("TOTAL ")) {
+                        total = Integer.parseInt(lines.get(0).substring(6).trim());
+                    }
+                    return new SearchPage(total, offset, parseSongs(lines));
+                })
+                .exceptionally(e -> null);
     }
 
     public static SongDTO getSong(int id) {
-        out.println("GET_SONG " + id);
-        try {
-            String line = in.readLine();
-            if (line == null || line.isEmpty()) return null;
-            return parseSong(line);
-        } catch (IOException e) {
-            return null;
-        }
+        String line = send("GET_SONG " + id);
+        if (line == null || line.isEmpty() || "ERROR".equals(line)) return null;
+        return parseSong(line);
+    }
+
+    // The songs for ids in one round trip; unknown ids are left out
+    public static List<SongDTO> getSongs(int[] ids) {
+        if (ids.length == 0) return new ArrayList<>();
+        return parseSongs(sendMulti(withIds("GET_SONGS", ids)));
     }
 
     // ==================== PLAY / RECENT ====================
@@ -127,6 +538,10 @@ public class BackendBridge {
         send("PLAY " + songId);
     }
 
+    public static CompletableFuture<String> playSongAsync(int songId) {
+        return sendAsync("PLAY " + songId);
+    }
+
     // ==================== FAVORITES ====================
 
     public static boolean addFavorite(int songId) {
@@ -141,10 +556,49 @@ public class BackendBridge {
         return send("FAV_CHECK " + songId).equals("YES");
     }
 
+    // One flag per id, in one round trip
+    public static boolean[] areFavorites(int[] ids) {
+        boolean[] result = new boolean[ids.length];
+        if (ids.length == 0) return result;
+
+        String flags = send(withIds("FAV_CHECK_MANY", ids));
+        for (int i = 0; i < ids.length && i < flags.length(); i++) {
+            result[i] = flags.charAt(i) == '1';
+        }
+        return result;
+    }
+
+    // Which of songIds are favorites, in one round trip
+    public static Set<Integer> favoritesAmong(List<Integer> songIds) {
+        int[] ids = songIds.stream().mapToInt(Integer::intValue).toArray();
+        boolean[] flags = areFavorites(ids);
+        Set<Integer> result = new HashSet<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (flags[i]) result.add(ids[i]);
+        }
+        return result;
+    }
+
+    // Batch edits are applied and journaled by the backend as one write
+    public static boolean addFavorites(int[] ids) {
+        if (ids.length == 0) return true;
+        return send(withIds("FAV_ADD_MANY", ids)).equals("OK");
+    }
+
+    public static boolean removeFavorites(int[] ids) {
+        if (ids.length == 0) return true;
+        return send(withIds("FAV_REMOVE_MANY", ids)).equals("OK");
+    }
+
     public static List<SongDTO> getFavorites() {
         return parseSongs(sendMulti("FAV_LIST"));
     }
 
+    // Favorites in song id order, `limit` at a time
+    public static CompletableFuture<SearchPage> getFavoritesPageAsync(int offset, int limit) {
+        return pageAsync("FAV_PAGE " + offset + " " + limit, offset);
+    }
+
     // ==================== PLAYLIST ====================
 
     public static boolean createPlaylist(int playlistId, String name) {
@@ -154,10 +608,20 @@ public class BackendBridge {
     public static boolean addToPlaylist(int playlistId, int songId) {
         return send("PL_ADD " + playlistId + " " + songId).equals("OK");
     }
+
+    public static boolean addToPlaylist(int playlistId, int[] songIds) {
+        if (songIds.length == 0) return true;
+        return send(withIds("PL_ADD_MANY " + playlistId, songIds)).equals("OK");
+    }
     public static List<SongDTO> getPlaylist(int playlistId) {
         return parseSongs(sendMulti("PL_GET " + playlistId));
     }
 
+    // Playlist songs in order, `limit` at a time
+    public static CompletableFuture<SearchPage> getPlaylistPageAsync(int playlistId, int offset, int limit) {
+        return pageAsync("PL_PAGE " + playlistId + " " + offset + " " + limit, offset);
+    }
+
     public static boolean removeFromPlaylist(int playlistId, int songId) {
         return send("PL_REMOVE " + playlistId + " " + songId).equals("OK");
     }
@@ -170,32 +634,43 @@ public class BackendBridge {
     // ==================== RECOMMENDATION ====================
 
     public static List<SongDTO> recommend(int songId) {
-    send("RECOMMEND " + songId);
+        return recommend(songId, DEFAULT_RECOMMEND_LIMIT);
+    }
 
-    List<SongDTO> result = new ArrayList<>();
-    String line;
+    // Best `limit` recommendations for songId, best first
+    public static List<SongDTO> recommend(int songId, int limit) {
+        return parseSongs(sendMulti("RECOMMEND " + songId + " " + limit));
+    }
 
-    try {
-        while (!(line = in.readLine()).equals("END")) {
-            result.add(parseSong(line));
-        }
-    } catch (Exception e) {
-        e.printStackTrace();
+    public static CompletableFuture<List<SongDTO>> recommendAsync(int songId) {
+        return recommendAsync(songId, DEFAULT_RECOMMEND_LIMIT);
     }
 
-    return result;
-}
+    public static CompletableFuture<List<SongDTO>> recommendAsync(int songId, int limit) {
+        return songsAsync("RECOMMEND " + songId + " " + limit);
+    }
 
     // ==================== RECENTLY PLAYED ====================
     public static List<SongDTO> getRecent() {
         return parseSongs(sendMulti("GET_RECENT"));
     }
 
+    public static CompletableFuture<List<SongDTO>> getRecentAsync() {
+        return songsAsync("GET_RECENT");
+    }
+
 
     // ==================== PARSING ====================
 
+    private static String withIds(String cmd, int[] ids) {
+        StringBuilder sb = new StringBuilder(cmd.length() + ids.length * 7).append(cmd);
+        for (int id : ids) sb.append(' ').append(id);
+        return sb.toString();
+    }
+
     private static SongDTO parseSong(String line) {
-        String[] p = line.split(",", 7);
+        // GET_ALL appends dateAdded as an 8th field; keep it out of imagePath
+        String[] p = line.split(",", 8);
 
         return new SongDTO(
                 Integer.parseInt(p[0]),
@@ -217,4 +692,31 @@ public class BackendBridge {
         }
         return list;
     }
+
+    // Binary GET_ALL frame: string table followed by fixed 7-int records
+    private static List<SongDTO> decodeSongFrame(ByteBuffer frame) {
+        byte[] bytes = frame.array();
+
+        String[] strings = new String[frame.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            int len = frame.getInt();
+            strings[i] = new String(bytes, frame.position(), len, StandardCharsets.UTF_8);
+            frame.position(frame.position() + len);
+        }
+
+        int count = frame.getInt();
+        List<SongDTO> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(new SongDTO(
+                    frame.getInt(),
+                    strings[frame.getInt()],
+                    strings[frame.getInt()],
+                    strings[frame.getInt()],
+                    frame.getInt(),
+                    strings[frame.getInt()],
+                    strings[frame.getInt()]
+            ));
+        }
+        return list;
+    }
 }
@@ -0,0 +1,176 @@
+import javax.swing.SwingUtilities;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/*
+ * BackendClient
+ * Asynchronous front door to BackendBridge for UI code.
+ *
+ * Calls are issued from one dedicated "backend-client" thread, so starting
+ * the backend process, SET_USER loading a session on the owner process or
+ * a stalled pipe never blocks the EDT, and they reach the backend in the
+ * order they were made. Every returned future completes on the EDT, so
+ * callbacks may touch Swing directly. Commands that BackendBridge can
+ * pipeline are only written on that thread and answered by the
+ * connection's reader, so several calls still share one round trip.
+ *
+ * While BackendBridge restarts a failed backend, calls fail quickly
+ * instead of waiting; onStateChange lets a window show that.
+ */
+public class BackendClient {
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "backend-client");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // ==================== PLUMBING ====================
+
+    // Runs a blocking BackendBridge call on the client thread
+    public static <T> CompletableFuture<T> call(Supplier<T> blocking) {
+        return onEdt(CompletableFuture.supplyAsync(() -> {
+            ensureStarted();
+            return blocking.get();
+        }, executor));
+    }
+
+    // Issues a pipelined BackendBridge request from the client thread
+    public static <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> request) {
+        return onEdt(CompletableFuture.supplyAsync(() -> {
+            ensureStarted();
+            return request.get();
+        }, executor).thenCompose(f -> f));
+    }
+
+    private static void ensureStarted() {
+        if (!BackendBridge.isRunning()) BackendBridge.startBackend();
+    }
+
+    private static <T> CompletableFuture<T> onEdt(CompletableFuture<T> source) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        source.whenComplete((value, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) result.completeExceptionally(error);
+            else result.complete(value);
+        }));
+        return result;
+    }
+
+    // ==================== STATE ====================
+
+    // Supervisor state changes, delivered on the EDT; run the returned
+    // Runnable to stop listening
+    public static Runnable onStateChange(Consumer<BackendBridge.State> listener) {
+        Consumer<BackendBridge.State> relay = s -> SwingUtilities.invokeLater(() -> listener.accept(s));
+        BackendBridge.addStateListener(relay);
+        return () -> BackendBridge.removeStateListener(relay);
+    }
+
+    // ==================== ACCOUNT ====================
+
+    public static CompletableFuture<Void> start() {
+        return call(() -> null);
+    }
+
+    public static CompletableFuture<Boolean> login(String username, String password) {
+        return call(() -> BackendBridge.login(username, password));
+    }
+
+    public static CompletableFuture<Boolean> signupFull(String fullname, String user, String pass) {
+        return call(() -> BackendBridge.signupFull(fullname, user, pass));
+    }
+
+    public static CompletableFuture<Void> setUser(String user) {
+        return call(() -> {
+            BackendBridge.setUser(user);
+            return null;
+        });
+    }
+
+    // ==================== SONGS ====================
+
+    // Shared catalog; the first call fetches it, later ones re-check the version
+    public static CompletableFuture<List<SongDTO>> catalog() {
+        return call(SongCatalog::getAll);
+    }
+
+    public static CompletableFuture<List<SongDTO>> getSongs(int[] ids) {
+        return call(() -> BackendBridge.getSongs(ids));
+    }
+
+    public static CompletableFuture<String> playSong(int songId) {
+        return callAsync(() -> BackendBridge.playSongAsync(songId));
+    }
+
+    public static CompletableFuture<List<SongDTO>> getRecent() {
+        return callAsync(BackendBridge::getRecentAsync);
+    }
+
+    public static CompletableFuture<List<SongDTO>> recommend(int songId, int limit) {
+        return callAsync(() -> BackendBridge.recommendAsync(songId, limit));
+    }
+
+    // ==================== FAVORITES ====================
+
+    public static CompletableFuture<Boolean> addFavorite(int songId) {
+        return call(() -> BackendBridge.addFavorite(songId));
+    }
+
+    public static CompletableFuture<Boolean> removeFavorite(int songId) {
+        return call(() -> BackendBridge.removeFavorite(songId));
+    }
+
+    public static CompletableFuture<Boolean> addFavorites(int[] songIds) {
+        return call(() -> BackendBridge.addFavorites(songIds));
+    }
+
+    public static CompletableFuture<Boolean> removeFavorites(int[] songIds) {
+        return call(() -> BackendBridge.removeFavorites(songIds));
+    }
+
+    public static CompletableFuture<boolean[]> areFavorites(int[] songIds) {
+        return call(() -> BackendBridge.areFavorites(songIds));
+    }
+
+    public static CompletableFuture<Set<Integer>> favoritesAmong(List<Integer> songIds) {
+        return call(() -> BackendBridge.favoritesAmong(songIds));
+    }
+
+    public static CompletableFuture<SearchPage> getFavoritesPage(int offset, int limit) {
+        return callAsync(() -> BackendBridge.getFavoritesPageAsync(offset, limit));
+    }
+
+    // ==================== PLAYLIST ====================
+
+    public static CompletableFuture<List<String>> getPlaylists() {
+        return call(BackendBridge::getPlaylists);
+    }
+
+    public static CompletableFuture<Boolean> createPlaylist(int playlistId, String name) {
+        return call(() -> BackendBridge.createPlaylist(playlistId, name));
+    }
+
+    public static CompletableFuture<Boolean> addToPlaylist(int playlistId, int songId) {
+        return call(() -> BackendBridge.addToPlaylist(playlistId, songId));
+    }
+
+    public static CompletableFuture<Boolean> addToPlaylist(int playlistId, int[] songIds) {
+        return call(() -> BackendBridge.addToPlaylist(playlistId, songIds));
+    }
+
+    public static CompletableFuture<List<SongDTO>> getPlaylist(int playlistId) {
+        return call(() -> BackendBridge.getPlaylist(playlistId));
+    }
+
+    public static CompletableFuture<SearchPage> getPlaylistPage(int playlistId, int offset, int limit) {
+        return callAsync(() -> BackendBridge.getPlaylistPageAsync(playlistId, offset, limit));
+    }
+
+    public static CompletableFuture<Boolean> removeFromPlaylist(int playlistId, int songId) {
+        return call(() -> BackendBridge.removeFromPlaylist(playlistId, songId));
+    }
+}
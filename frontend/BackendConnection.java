@@ -0,0 +1,340 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * BackendConnection
+ * One backend process driven over its stdin/stdout pipe.
+ *
+ * Every command is written as "@<id> CMD ..." and the backend answers with
+ * an "@<id>" header line followed by the normal response body, so any number
+ * of commands can be in flight at once. A dedicated reader thread consumes
+ * the responses and completes the matching CompletableFuture.
+ *
+ * The READY line lists the wire formats the backend can speak. When it
+ * offers BIN1 the connection switches GET_ALL to a length-prefixed binary
+ * frame, which requestFrame hands back as a little-endian ByteBuffer.
+ *
+ * Nothing waits forever: a backend that does not say READY in time is
+ * killed, and a request past its deadline fails with a TimeoutException.
+ * Its entry stays registered, so a late answer is still read and dropped
+ * and the stream stays in step. problem() tells a busy backend from a
+ * wedged or dead one; BackendBridge uses it to decide on a restart.
+ */
+public class BackendConnection {
+
+    // Reads the body that follows a response header
+    interface BodyReader<T> {
+        T read() throws IOException;
+    }
+
+    private static final class Pending {
+        final BodyReader<?> body;
+        final long sentNanos = System.nanoTime();
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+
+        Pending(BodyReader<?> body) {
+            this.body = body;
+        }
+    }
+
+    private final Process process;
+    private final OutputStream out;
+    private final InputStream in;
+    private final Object writeLock = new Object();
+    private final Map<Integer, Pending> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private volatile boolean closed = false;
+    private boolean binaryCatalog = false;
+    private volatile long lastReadNanos = System.nanoTime();
+
+    // Reader-side buffer (only touched by the handshake and the reader thread)
+    private final byte[] buf = new byte[64 * 1024];
+    private int bufPos = 0;
+    private int bufLen = 0;
+    private byte[] lineBuf = new byte[256];
+
+    private BackendConnection(Process process) {
+        this.process = process;
+        this.out = new BufferedOutputStream(process.getOutputStream());
+        this.in = process.getInputStream();
+    }
+
+    // ==================== LIFECYCLE ====================
+
+    // startTimeoutMs bounds the wait for READY (0 = wait forever). A
+    // readOnly worker serves catalog commands only and skips the
+    // recommendation precompute.
+    public static BackendConnection start(String executable, boolean allowBinary,
+                                          long startTimeoutMs, boolean readOnly) throws IOException {
+        ProcessBuilder pb = new ProcessBuilder(executable)
+                .redirectError(ProcessBuilder.Redirect.INHERIT);
+
+        // journal fsync policy for per-user data: always | batch | exit
+        String journalSync = System.getProperty("soundraft.journal.sync");
+        if (journalSync != null) pb.environment().put("SOUNDRAFT_JOURNAL_SYNC", journalSync);
+        if (readOnly) pb.environment().put("SOUNDRAFT_ROLE", "reader");
+
+        Process p = pb.start();
+
+        BackendConnection c = new BackendConnection(p);
+
+        // killing a silent backend ends the blocked handshake read with EOF
+        AtomicBoolean handshaking = new AtomicBoolean(true);
+        if (startTimeoutMs > 0) {
+            CompletableFuture.delayedExecutor(startTimeoutMs, TimeUnit.MILLISECONDS).execute(() -> {
+                if (handshaking.compareAndSet(true, false)) p.destroyForcibly();
+            });
+        }
+
+        try {
+            c.handshake(allowBinary);
+        } catch (IOException e) {
+            p.destroyForcibly();
+            if (handshaking.get()) throw e;
+        }
+        if (!handshaking.compareAndSet(true, false)) {
+            throw new IOException("Backend not ready within " + startTimeoutMs + " ms");
+        }
+
+        Thread reader = new Thread(c::readLoop, "backend-reader");
+        reader.setDaemon(true);
+        reader.start();
+        return c;
+    }
+
+    // Waits for READY before the stream is handed to the reader thread
+    private void handshake(boolean allowBinary) throws IOException {
+        String line = readLine();
+        if (line == null || !line.startsWith("READY")) {
+            throw new IOException("Backend not ready: " + line);
+        }
+
+        List<String> formats = Arrays.asList(line.split(" "));
+        if (allowBinary && formats.contains("BIN1")) {
+            out.write("FORMAT BIN1\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            binaryCatalog = "OK".equals(readLine());
+        }
+    }
+
+    public boolean isAlive() {
+        return !closed && process.isAlive();
+    }
+
+    // True when GET_ALL answers with a binary frame instead of text lines
+    public boolean hasBinaryCatalog() {
+        return binaryCatalog;
+    }
+
+    // Number of commands written but not yet answered
+    public int inFlight() {
+        return pending.size();
+    }
+
+    // Why this connection should be replaced, or null while it is healthy.
+    // A request unanswered for hangMs while nothing at all arrives on the
+    // pipe means the backend is wedged, not just busy with a long reply.
+    public String problem(long hangMs) {
+        if (closed) return "connection closed";
+        if (!process.isAlive()) return "process exited with code " + process.exitValue();
+
+        long now = System.nanoTime();
+        long oldest = now;
+        for (Pending p : pending.values()) oldest = Math.min(oldest, p.sentNanos);
+        long stalledMs = Math.min(now - oldest, now - lastReadNanos) / 1_000_000;
+        if (hangMs > 0 && stalledMs >= hangMs) return "no response for " + stalledMs + " ms";
+        return null;
+    }
+
+    // Drops a dead or wedged backend without writing to its pipe
+    public void kill(String reason) {
+        closed = true;
+        process.destroyForcibly();
+        failAll(new IOException("Backend " + reason));
+    }
+
+    public void close() {
+        if (closed) return;
+        try {
+            synchronized (writeLock) {
+                out.write("EXIT\n".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        } catch (IOException ignored) {}
+        closed = true;
+        process.destroy();
+        failAll(new IOException("Backend closed"));
+    }
+
+    // ==================== REQUESTS ====================
+
+    // timeoutMs is the request's deadline (0 = none)
+
+    // Command answered by exactly one line
+    public CompletableFuture<String> request(String cmd, long timeoutMs) {
+        return submit(cmd, this::readLine, timeoutMs);
+    }
+
+    // Command answered by lines terminated with END
+    public CompletableFuture<List<String>> requestMulti(String cmd, long timeoutMs) {
+        return submit(cmd, this::readUntilEnd, timeoutMs);
+    }
+
+    // Command answered by one length-prefixed binary frame
+    public CompletableFuture<ByteBuffer> requestFrame(String cmd, long timeoutMs) {
+        return submit(cmd, this::readFrame, timeoutMs);
+    }
+
+    // Heartbeat; an unanswered PING shows up in problem()
+    public void ping() {
+        submit("PING", this::readLine, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> submit(String cmd, BodyReader<T> body, long timeoutMs) {
+        Pending p = new Pending(body);
+        CompletableFuture<T> result = (CompletableFuture<T>) (CompletableFuture<?>) p.future;
+
+        if (!isAlive()) {
+            result.completeExceptionally(new IOException("Backend not running"));
+            return result;
+        }
+
+        int id = nextId.getAndIncrement();
+        pending.put(id, p);
+
+        if (timeoutMs > 0) {
+            // only the caller gives up; the answer is still consumed when it comes
+            p.future.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).whenComplete((v, e) -> {
+                if (e instanceof TimeoutException) {
+                    int space = cmd.indexOf(' ');
+                    System.err.println("[backend] " + (space < 0 ? cmd : cmd.substring(0, space))
+                            + " got no answer within " + timeoutMs + " ms");
+                }
+            });
+        }
+
+        byte[] line = ("@" + id + " " + cmd + "\n").getBytes(StandardCharsets.UTF_8);
+        try {
+            synchronized (writeLock) {
+                out.write(line);
+                out.flush();
+            }
+        } catch (IOException e) {
+            pending.remove(id);
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    // ==================== READER THREAD ====================
+
+    private void readLoop() {
+        IOException cause = new IOException("Backend closed the pipe");
+        try {
+            String line;
+            while ((line = readLine()) != null) {
+                if (!line.startsWith("@")) {
+                    // stray output between responses (never part of a body)
+                    System.err.println("backend: " + line);
+                    continue;
+                }
+
+                int id = Integer.parseInt(line.substring(1).trim());
+                Pending p = pending.remove(id);
+                if (p == null) {
+                    // unknown body shape: the stream can no longer be trusted
+                    cause = new IOException("Unexpected response id " + id);
+                    break;
+                }
+
+                try {
+                    p.future.complete(p.body.read());
+                } catch (RuntimeException e) {
+                    p.future.completeExceptionally(e);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            cause = new IOException("Backend stream broken", e);
+        } finally {
+            closed = true;
+            failAll(cause);
+        }
+    }
+
+    private void failAll(IOException cause) {
+        for (Integer id : new ArrayList<>(pending.keySet())) {
+            Pending p = pending.remove(id);
+            if (p != null) p.future.completeExceptionally(cause);
+        }
+    }
+
+    private List<String> readUntilEnd() throws IOException {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = readLine()) != null) {
+            if ("END".equals(line)) return lines;
+            lines.add(line);
+        }
+        throw new EOFException("Backend closed mid-response");
+    }
+
+    private ByteBuffer readFrame() throws IOException {
+        byte[] len = new byte[4];
+        readFully(len);
+        int length = ByteBuffer.wrap(len).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        if (length < 0) throw new IOException("Bad frame length " + length);
+
+        byte[] frame = new byte[length];
+        readFully(frame);
+        return ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // ==================== LOW-LEVEL INPUT ====================
+
+    private void readFully(byte[] dst) throws IOException {
+        int off = 0;
+        while (off < dst.length) {
+            if (bufPos >= bufLen && !fill()) {
+                throw new EOFException("Backend closed mid-frame");
+            }
+            int n = Math.min(dst.length - off, bufLen - bufPos);
+            System.arraycopy(buf, bufPos, dst, off, n);
+            bufPos += n;
+            off += n;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        bufLen = in.read(buf, 0, buf.length);
+        bufPos = 0;
+        if (bufLen <= 0) return false;
+        lastReadNanos = System.nanoTime();
+        return true;
+    }
+
+    // Reads one '\n' terminated UTF-8 line (trailing '\r' stripped), null on EOF
+    private String readLine() throws IOException {
+        int len = 0;
+        while (true) {
+            if (bufPos >= bufLen && !fill()) {
+                return len == 0 ? null : decode(len);
+            }
+            byte b = buf[bufPos++];
+            if (b == '\n') return decode(len);
+            if (len == lineBuf.length) lineBuf = Arrays.copyOf(lineBuf, len * 2);
+            lineBuf[len++] = b;
+        }
+    }
+
+    private String decode(int len) {
+        if (len > 0 && lineBuf[len - 1] == '\r') len--;
+        return new String(lineBuf, 0, len, StandardCharsets.UTF_8);
+    }
+}
@@ -7,7 +7,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import javax.imageio.ImageIO;
+import java.util.concurrent.CompletableFuture;
 
 public class Dashboard extends JFrame {
 
@@ -20,15 +20,26 @@ public class Dashboard extends JFrame {
     private final Color SUBTEXT = new Color(0xA2A2A8);
     private final Color HOVER = new Color(0x282832);
 
-    private JPanel trendingContainer;
-    private JPanel quickPicksContainer;
-    private JPanel randomContainer;
+    private VirtualCardRow trendingRow;
+    private VirtualCardRow quickPicksRow;
+    private VirtualCardRow randomRow;
     private JPanel historyPanel;
     private java.util.Set<Integer> recommendedIds = new java.util.HashSet<>();
     private String loggedUser;
     private JTextField search;
     private List<SongDTO> allSongs = new ArrayList<>();
 
+    // Search runs against SongCatalog's index off the EDT, after a short pause in typing
+    private static final int SEARCH_DEBOUNCE_MS = 150;
+    private static final int SEARCH_LIMIT = 60;
+
+    // Recommendations added per played song, and how many are fetched to pick them from
+    private static final int RECOMMEND_SHOWN = 3;
+    private static final int RECOMMEND_FETCH = 12;
+    private javax.swing.Timer searchDebounce;
+    private SwingWorker<List<SongDTO>, Void> searchWorker;
+    private Runnable stopStateUpdates;
+
     public Dashboard() {
         this(null);
     }
@@ -36,21 +47,8 @@ public class Dashboard extends JFrame {
     public Dashboard(String loggedUser) {
         this.loggedUser = loggedUser;
 
-        // Backend init
-        try {
-            // Note: If you don't have BackendBridge compiled, this might throw errors.
-            // Wrap in try-catch or comment out if testing UI only.
-            try {
-                if (!BackendBridge.isRunning()) {
-                    BackendBridge.startBackend();
-                    BackendBridge.getAllSongs();
-                }
-            } catch (Throwable t) {
-                System.out.println("Backend bridge not found or failed, skipping...");
-            }
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+        // Backend init, off the EDT; calls made meanwhile queue behind it
+        BackendClient.start();
 
         setTitle("SoundRaft");
         setSize(1400, 850);
@@ -59,34 +57,34 @@ public class Dashboard extends JFrame {
         setLayout(new BorderLayout());
         getContentPane().setBackground(BG);
 
-        // Load all songs first
-        loadAllSongs();
-
-        // Build UI
+        // Build UI; the rows show a loading state until the catalog arrives
         add(createSidebar(), BorderLayout.WEST);
         add(createHeader(), BorderLayout.NORTH);
         add(createMainContent(), BorderLayout.CENTER);
 
+        loadAllSongs(() -> {
+            loadTrendingSongs();
+            loadQuickPicks();
+        });
+
         setVisible(true);
     }
 
-    private void loadAllSongs() {
-    allSongs.clear();
-
-    try {
-        // Fetch from C++ backend (CSV-based)
-        List<SongDTO> songs = BackendBridge.getAllSongs();
-        if (songs != null && !songs.isEmpty()) {
-            allSongs.addAll(songs);
-            return;
-        }
-    } catch (Exception e) {
-        System.out.println("Backend not available, loading dummy data...");
+    // Fetches the shared catalog off the EDT, then runs onLoaded on the EDT
+    private void loadAllSongs(Runnable onLoaded) {
+        trendingRow.setEmptyText("Loading songs…");
+        quickPicksRow.setEmptyText("Loading songs…");
+
+        // Shared catalog cache (fetched from the C++ backend once)
+        BackendClient.catalog()
+                .handle((songs, err) -> err == null ? songs : List.<SongDTO>of())
+                .thenAccept(songs -> {
+                    allSongs.clear();
+                    allSongs.addAll(songs);
+                    onLoaded.run();
+                });
     }
 
-    
-}
-
 
     // ==================== MAIN CONTENT ====================
     private JScrollPane createMainContent() {
@@ -148,21 +146,28 @@ public class Dashboard extends JFrame {
         wrapper.setMaximumSize(new Dimension(Integer.MAX_VALUE, 270));
         wrapper.setPreferredSize(new Dimension(800, 270));
 
-        // Inner panel for cards with FlowLayout
-        trendingContainer = new JPanel(new FlowLayout(FlowLayout.LEFT, 20, 0));
-        trendingContainer.setBackground(BG);
+        // Cards are created only for the visible part of the row
+        trendingRow = new VirtualCardRow(TrendingCard::new, 180, 240, 20, 1, 0);
+        trendingRow.setBackground(BG);
 
         // Load songs
         loadTrendingSongs();
 
-        // Calculate required width for scrolling
-        int cardWidth = 180;
-        int gap = 20;
-        int totalWidth = (cardWidth + gap) * Math.min(allSongs.size(), 15) + 20;
-        trendingContainer.setPreferredSize(new Dimension(totalWidth, 250));
+        wrapper.add(createRowScrollPane(trendingRow), BorderLayout.CENTER);
+        return wrapper;
+    }
+
+    private void loadTrendingSongs() {
+        List<SongDTO> shuffled = new ArrayList<>(allSongs);
+        Collections.shuffle(shuffled);
+
+        trendingRow.setEmptyText(null);
+        trendingRow.setSongs(shuffled.subList(0, Math.min(15, shuffled.size())));
+    }
 
-        // Create horizontal scroll pane
-        JScrollPane scrollPane = new JScrollPane(trendingContainer);
+    // Horizontal scroll pane shared by the card rows
+    private JScrollPane createRowScrollPane(VirtualCardRow row) {
+        JScrollPane scrollPane = new JScrollPane(row);
         scrollPane.setBorder(null);
         scrollPane.setBackground(BG);
         scrollPane.getViewport().setBackground(BG);
@@ -178,96 +183,87 @@ public class Dashboard extends JFrame {
             hBar.setValue(hBar.getValue() + delta);
         });
 
-        wrapper.add(scrollPane, BorderLayout.CENTER);
-        return wrapper;
+        return scrollPane;
     }
 
-    private void loadTrendingSongs() {
-        trendingContainer.removeAll();
-
-        List<SongDTO> shuffled = new ArrayList<>(allSongs);
-        Collections.shuffle(shuffled);
-
-        int count = 0;
-        for (SongDTO song : shuffled) {
-            if (count >= 15) break;
-            trendingContainer.add(createTrendingCard(song));
-            count++;
+    // Album art that follows whichever song its card is bound to
+    private abstract class CoverArt extends JPanel {
+        private final int artSize;
+        private final int arc;
+        private volatile int boundId = -1;
+        private Image cachedImage = null;
+
+        CoverArt(int artSize, int arc) {
+            this.artSize = artSize;
+            this.arc = arc;
+            setOpaque(false);
         }
 
-        // Update preferred size
-        int cardWidth = 180;
-        int gap = 20;
-        int totalWidth = (cardWidth + gap) * count + 40;
-        trendingContainer.setPreferredSize(new Dimension(totalWidth, 250));
-
-        trendingContainer.revalidate();
-        trendingContainer.repaint();
-    }
+        void show(SongDTO song) {
+            int id = (song == null) ? -1 : song.songId;
+            boundId = id;
+            cachedImage = (song == null) ? null : ArtworkLoader.getCached(id, artSize);
+            repaint();
+            if (song == null || cachedImage != null) return;
+
+            // decoded off the EDT; the placeholder shows until it arrives,
+            // and nothing is decoded if the card is rebound first
+            ArtworkLoader.request(id, song.imagePath, artSize, img -> {
+                if (boundId != id) return;
+                cachedImage = img;
+                repaint();
+            }, () -> boundId == id);
+        }
 
-    private JPanel createTrendingCard(SongDTO song) {
-        // Fixed size card
-        final int CARD_WIDTH = 180;
-        final int CARD_HEIGHT = 240;
-        final int ART_SIZE = 150;
+        abstract void paintPlaceholder(Graphics2D g2);
 
-        JPanel card = new JPanel() {
-            @Override
-            protected void paintComponent(Graphics g) {
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2.setColor(getBackground());
-                g2.fill(new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), 16, 16));
-                g2.dispose();
-            }
-        };
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
 
-        card.setLayout(null);
-        card.setPreferredSize(new Dimension(CARD_WIDTH, CARD_HEIGHT));
-        card.setMinimumSize(new Dimension(CARD_WIDTH, CARD_HEIGHT));
-        card.setMaximumSize(new Dimension(CARD_WIDTH, CARD_HEIGHT));
-        card.setBackground(SURFACE);
-        card.setOpaque(false);
-        card.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
-
-        // Album art panel
-        JPanel artPanel = new JPanel() {
-            private Image cachedImage = null;
-            private boolean imageLoaded = false;
-
-            {
-                loadImage();
-            }
+            // Rounded clip
+            g2.setClip(new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), arc, arc));
 
-            private void loadImage() {
-                if (song.imagePath != null && !song.imagePath.trim().isEmpty()) {
-                    try {
-                        File imgFile = new File(song.imagePath);
-                        if (imgFile.exists()) {
-                            cachedImage = ImageIO.read(imgFile);
-                            imageLoaded = true;
-                        }
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                }
+            if (cachedImage != null) {
+                // Draw scaled image
+                g2.drawImage(cachedImage, 0, 0, getWidth(), getHeight(), null);
+            } else {
+                paintPlaceholder(g2);
             }
 
-            @Override
-            protected void paintComponent(Graphics g) {
-                super.paintComponent(g);
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-
-                // Rounded clip
-                g2.setClip(new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), 12, 12));
+            g2.dispose();
+        }
+    }
 
-                if (cachedImage != null) {
-                    // Draw scaled image
-                    g2.drawImage(cachedImage, 0, 0, getWidth(), getHeight(), null);
-                } else {
-                    // Placeholder
+    private class TrendingCard extends VirtualCardRow.Card {
+        private static final int CARD_WIDTH = 180;
+        private static final int CARD_HEIGHT = 240;
+        private static final int ART_SIZE = 150;
+
+        private SongDTO song;
+        private final CoverArt artPanel;
+        private final JLabel titleLabel;
+        private final JLabel artistLabel;
+        private final JLabel durLabel;
+        private final JButton playBtn;
+
+        TrendingCard() {
+            // Fixed size card
+            setLayout(null);
+            setPreferredSize(new Dimension(CARD_WIDTH, CARD_HEIGHT));
+            setMinimumSize(new Dimension(CARD_WIDTH, CARD_HEIGHT));
+            setMaximumSize(new Dimension(CARD_WIDTH, CARD_HEIGHT));
+            setBackground(SURFACE);
+            setOpaque(false);
+            setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+
+            // Album art panel
+            artPanel = new CoverArt(ART_SIZE, 12) {
+                @Override
+                void paintPlaceholder(Graphics2D g2) {
                     GradientPaint gp = new GradientPaint(
                         0, 0, new Color(0x2A2A35),
                         getWidth(), getHeight(), new Color(0x1E1E28)
@@ -284,65 +280,81 @@ public class Dashboard extends JFrame {
                     int y = (getHeight() + fm.getAscent()) / 2 - 10;
                     g2.drawString(note, x, y);
                 }
+            };
+            artPanel.setBounds(15, 12, ART_SIZE, ART_SIZE - 30);
+            add(artPanel);
+
+            // Title
+            titleLabel = new JLabel();
+            titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+            titleLabel.setForeground(TEXT);
+            titleLabel.setBounds(15, ART_SIZE - 10, CARD_WIDTH - 50, 22);
+            add(titleLabel);
+
+            // Play button
+            playBtn = createCircularPlayButton(32);
+            playBtn.setBounds(CARD_WIDTH - 48, ART_SIZE - 15, 32, 32);
+            playBtn.setVisible(false);
+            playBtn.addActionListener(e -> { if (song != null) playSong(song); });
+            add(playBtn);
+
+            // Artist
+            artistLabel = new JLabel();
+            artistLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+            artistLabel.setForeground(SUBTEXT);
+            artistLabel.setBounds(15, ART_SIZE + 12, CARD_WIDTH - 30, 18);
+            add(artistLabel);
+
+            // Duration
+            durLabel = new JLabel();
+            durLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+            durLabel.setForeground(new Color(0x666670));
+            durLabel.setBounds(15, ART_SIZE + 30, 80, 16);
+            add(durLabel);
+
+            // Hover effects
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mouseEntered(MouseEvent e) {
+                    setBackground(HOVER);
+                    playBtn.setVisible(true);
+                    repaint();
+                }
 
-                g2.dispose();
-            }
-        };
-        artPanel.setBounds(15, 12, ART_SIZE, ART_SIZE - 30);
-        artPanel.setOpaque(false);
-        card.add(artPanel);
-
-        // Title
-        JLabel titleLabel = new JLabel(truncate(song.title, 18));
-        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
-        titleLabel.setForeground(TEXT);
-        titleLabel.setBounds(15, ART_SIZE - 10, CARD_WIDTH - 50, 22);
-        card.add(titleLabel);
-
-        // Play button
-        JButton playBtn = createCircularPlayButton(32);
-        playBtn.setBounds(CARD_WIDTH - 48, ART_SIZE - 15, 32, 32);
-        playBtn.setVisible(false);
-        playBtn.addActionListener(e -> playSong(song));
-        card.add(playBtn);
-
-        // Artist
-        JLabel artistLabel = new JLabel(truncate(song.artist, 22));
-        artistLabel.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-        artistLabel.setForeground(SUBTEXT);
-        artistLabel.setBounds(15, ART_SIZE + 12, CARD_WIDTH - 30, 18);
-        card.add(artistLabel);
-
-        // Duration
-        JLabel durLabel = new JLabel(formatDuration(song.duration));
-        durLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
-        durLabel.setForeground(new Color(0x666670));
-        durLabel.setBounds(15, ART_SIZE + 30, 80, 16);
-        card.add(durLabel);
-
-        // Hover effects
-        card.addMouseListener(new MouseAdapter() {
-            @Override
-            public void mouseEntered(MouseEvent e) {
-                card.setBackground(HOVER);
-                playBtn.setVisible(true);
-                card.repaint();
-            }
+                @Override
+                public void mouseExited(MouseEvent e) {
+                    setBackground(SURFACE);
+                    playBtn.setVisible(false);
+                    repaint();
+                }
 
-            @Override
-            public void mouseExited(MouseEvent e) {
-                card.setBackground(SURFACE);
-                playBtn.setVisible(false);
-                card.repaint();
-            }
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    if (song != null) playSong(song);
+                }
+            });
+        }
 
-            @Override
-            public void mouseClicked(MouseEvent e) {
-                playSong(song);
-            }
-        });
+        @Override
+        public void bind(SongDTO song) {
+            this.song = song;
+            setBackground(SURFACE);
+            playBtn.setVisible(false);
+            artPanel.show(song);
+            if (song == null) return;
+            titleLabel.setText(truncate(song.title, 18));
+            artistLabel.setText(truncate(song.artist, 22));
+            durLabel.setText(formatDuration(song.duration));
+        }
 
-        return card;
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor(getBackground());
+            g2.fill(new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), 16, 16));
+            g2.dispose();
+        }
     }
 
     // ==================== RANDOM / RECOMMENDED SECTION ====================
@@ -353,56 +365,22 @@ public class Dashboard extends JFrame {
         wrapper.setMaximumSize(new Dimension(Integer.MAX_VALUE, 250));
         wrapper.setPreferredSize(new Dimension(800, 250));
 
-        randomContainer = new JPanel(new FlowLayout(FlowLayout.LEFT, 18, 0));
-        randomContainer.setBackground(BG);
+        randomRow = new VirtualCardRow(TrendingCard::new, 180, 240, 18, 1, 0);
+        randomRow.setBackground(BG);
 
         // Start empty: recommendations are populated when a user plays songs
 
-        int cardWidth = 180;
-        int gap = 18;
-        int totalWidth = (cardWidth + gap) * Math.min(allSongs.size(), 10) + 20;
-        randomContainer.setPreferredSize(new Dimension(totalWidth, 230));
-
-        JScrollPane scrollPane = new JScrollPane(randomContainer);
-        scrollPane.setBorder(null);
-        scrollPane.setBackground(BG);
-        scrollPane.getViewport().setBackground(BG);
-        scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
-        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_NEVER);
-        scrollPane.getHorizontalScrollBar().setUnitIncrement(40);
-        customizeScrollBar(scrollPane.getHorizontalScrollBar());
-
-        scrollPane.addMouseWheelListener(e -> {
-            JScrollBar hBar = scrollPane.getHorizontalScrollBar();
-            int delta = e.getUnitsToScroll() * 25;
-            hBar.setValue(hBar.getValue() + delta);
-        });
-
-        wrapper.add(scrollPane, BorderLayout.CENTER);
+        wrapper.add(createRowScrollPane(randomRow), BorderLayout.CENTER);
         return wrapper;
     }
 
     private void loadRandomSongs() {
-        if (randomContainer == null) return;
-        randomContainer.removeAll();
+        if (randomRow == null) return;
 
         List<SongDTO> shuffled = new ArrayList<>(allSongs);
         Collections.shuffle(shuffled);
 
-        int count = 0;
-        for (SongDTO song : shuffled) {
-            if (count >= 10) break;
-            randomContainer.add(createTrendingCard(song));
-            count++;
-        }
-
-        int cardWidth = 180;
-        int gap = 18;
-        int totalWidth = (cardWidth + gap) * count + 40;
-        randomContainer.setPreferredSize(new Dimension(totalWidth, 230));
-
-        randomContainer.revalidate();
-        randomContainer.repaint();
+        randomRow.setSongs(shuffled.subList(0, Math.min(10, shuffled.size())));
     }
 
     // ==================== QUICK PICKS SECTION (FIXED) ====================
@@ -413,120 +391,46 @@ public class Dashboard extends JFrame {
         wrapper.setMaximumSize(new Dimension(Integer.MAX_VALUE, 230));
         wrapper.setPreferredSize(new Dimension(800, 230));
 
-        // Container for columns
-        quickPicksContainer = new JPanel();
-        quickPicksContainer.setLayout(new FlowLayout(FlowLayout.LEFT, 15, 0));
-        quickPicksContainer.setBackground(BG);
+        // Columns of 3 cards each, built only around the visible range
+        quickPicksRow = new VirtualCardRow(QuickPickCard::new, 290, 62, 15, 3, 10);
+        quickPicksRow.setBackground(BG);
 
         loadQuickPicks();
 
-        // Scroll pane
-        JScrollPane scrollPane = new JScrollPane(quickPicksContainer);
-        scrollPane.setBorder(null);
-        scrollPane.setBackground(BG);
-        scrollPane.getViewport().setBackground(BG);
-        scrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_AS_NEEDED);
-        scrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_NEVER);
-        scrollPane.getHorizontalScrollBar().setUnitIncrement(40);
-        customizeScrollBar(scrollPane.getHorizontalScrollBar());
-
-        // Mouse wheel horizontal scroll
-        scrollPane.addMouseWheelListener(e -> {
-            JScrollBar hBar = scrollPane.getHorizontalScrollBar();
-            int delta = e.getUnitsToScroll() * 25;
-            hBar.setValue(hBar.getValue() + delta);
-        });
-
-        wrapper.add(scrollPane, BorderLayout.CENTER);
+        wrapper.add(createRowScrollPane(quickPicksRow), BorderLayout.CENTER);
         return wrapper;
     }
 
     private void loadQuickPicks() {
-        quickPicksContainer.removeAll();
-
-        // Create columns of 3 cards each
-        int cardsPerColumn = 3;
-        int columnWidth = 300;
-        int numColumns = (int) Math.ceil((double) allSongs.size() / cardsPerColumn);
-
-        for (int col = 0; col < numColumns; col++) {
-            JPanel column = new JPanel();
-            column.setLayout(new BoxLayout(column, BoxLayout.Y_AXIS));
-            column.setBackground(BG);
-            column.setAlignmentY(Component.TOP_ALIGNMENT);
-
-            for (int row = 0; row < cardsPerColumn; row++) {
-                int index = col * cardsPerColumn + row;
-                if (index < allSongs.size()) {
-                    if (row > 0) column.add(Box.createVerticalStrut(10));
-                    column.add(createQuickPickCard(allSongs.get(index)));
-                }
-            }
-
-            quickPicksContainer.add(column);
-        }
-
-        // Update container size
-        int totalWidth = (columnWidth + 15) * numColumns + 30;
-        quickPicksContainer.setPreferredSize(new Dimension(totalWidth, 210));
-
-        quickPicksContainer.revalidate();
-        quickPicksContainer.repaint();
+        quickPicksRow.setEmptyText(null);
+        quickPicksRow.setSongs(allSongs);
     }
 
-    private JPanel createQuickPickCard(SongDTO song) {
-        final int CARD_WIDTH = 290;
-        final int CARD_HEIGHT = 62;
-        final int ART_SIZE = 48;
-
-        JPanel card = new JPanel() {
-            @Override
-            protected void paintComponent(Graphics g) {
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2.setColor(getBackground());
-                g2.fill(new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), 10, 10));
-                g2.dispose();
-            }
-        };
-
-        card.setLayout(new BorderLayout(12, 0));
-        card.setPreferredSize(new Dimension(CARD_WIDTH, CARD_HEIGHT));
-        card.setMinimumSize(new Dimension(CARD_WIDTH, CARD_HEIGHT));
-        card.setMaximumSize(new Dimension(CARD_WIDTH, CARD_HEIGHT));
-        card.setBackground(CARD_BG);
-        card.setOpaque(false);
-        card.setBorder(BorderFactory.createEmptyBorder(7, 7, 7, 12));
-        card.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
-
-        // Album art
-        JPanel artPanel = new JPanel() {
-            private Image cachedImage = null;
-
-            {
-                if (song.imagePath != null && !song.imagePath.trim().isEmpty()) {
-                    try {
-                        File imgFile = new File(song.imagePath);
-                        if (imgFile.exists()) {
-                            cachedImage = ImageIO.read(imgFile);
-                        }
-                    } catch (Exception e) {
-                    }
-                }
-            }
-
-            @Override
-            protected void paintComponent(Graphics g) {
-                super.paintComponent(g);
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-
-                g2.setClip(new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), 8, 8));
-
-                if (cachedImage != null) {
-                    g2.drawImage(cachedImage, 0, 0, getWidth(), getHeight(), null);
-                } else {
+    private class QuickPickCard extends VirtualCardRow.Card {
+        private static final int CARD_WIDTH = 290;
+        private static final int CARD_HEIGHT = 62;
+        private static final int ART_SIZE = 48;
+
+        private SongDTO song;
+        private final CoverArt artPanel;
+        private final JLabel titleLabel;
+        private final JLabel artistLabel;
+        private final JButton playBtn;
+
+        QuickPickCard() {
+            setLayout(new BorderLayout(12, 0));
+            setPreferredSize(new Dimension(CARD_WIDTH, CARD_HEIGHT));
+            setMinimumSize(new Dimension(CARD_WIDTH, CARD_HEIGHT));
+            setMaximumSize(new Dimension(CARD_WIDTH, CARD_HEIGHT));
+            setBackground(CARD_BG);
+            setOpaque(false);
+            setBorder(BorderFactory.createEmptyBorder(7, 7, 7, 12));
+            setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+
+            // Album art
+            artPanel = new CoverArt(ART_SIZE, 8) {
+                @Override
+                void paintPlaceholder(Graphics2D g2) {
                     g2.setColor(new Color(0x2A2A35));
                     g2.fillRect(0, 0, getWidth(), getHeight());
                     g2.setColor(new Color(0x505060));
@@ -534,72 +438,87 @@ public class Dashboard extends JFrame {
                     g2.drawString("♪", 15, 32);
                 }
 
-                g2.dispose();
-            }
+                @Override
+                public Dimension getPreferredSize() {
+                    return new Dimension(ART_SIZE, ART_SIZE);
+                }
+            };
+            add(artPanel, BorderLayout.WEST);
+
+            // Info panel
+            JPanel infoPanel = new JPanel();
+            infoPanel.setLayout(new BoxLayout(infoPanel, BoxLayout.Y_AXIS));
+            infoPanel.setOpaque(false);
+            infoPanel.setBorder(BorderFactory.createEmptyBorder(5, 0, 5, 0));
+
+            titleLabel = new JLabel();
+            titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 13));
+            titleLabel.setForeground(TEXT);
+            titleLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+            artistLabel = new JLabel();
+            artistLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
+            artistLabel.setForeground(SUBTEXT);
+            artistLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+            infoPanel.add(titleLabel);
+            infoPanel.add(Box.createVerticalStrut(3));
+            infoPanel.add(artistLabel);
+
+            add(infoPanel, BorderLayout.CENTER);
+
+            // Play button (hidden by default)
+            playBtn = createCircularPlayButton(30);
+            playBtn.setVisible(false);
+            playBtn.addActionListener(e -> { if (song != null) playSong(song); });
+
+            JPanel btnWrapper = new JPanel(new GridBagLayout());
+            btnWrapper.setOpaque(false);
+            btnWrapper.add(playBtn);
+            add(btnWrapper, BorderLayout.EAST);
+
+            // Hover effects
+            addMouseListener(new MouseAdapter() {
+                @Override
+                public void mouseEntered(MouseEvent e) {
+                    setBackground(HOVER);
+                    playBtn.setVisible(true);
+                    repaint();
+                }
 
-            @Override
-            public Dimension getPreferredSize() {
-                return new Dimension(ART_SIZE, ART_SIZE);
-            }
-        };
-        artPanel.setOpaque(false);
-        card.add(artPanel, BorderLayout.WEST);
-
-        // Info panel
-        JPanel infoPanel = new JPanel();
-        infoPanel.setLayout(new BoxLayout(infoPanel, BoxLayout.Y_AXIS));
-        infoPanel.setOpaque(false);
-        infoPanel.setBorder(BorderFactory.createEmptyBorder(5, 0, 5, 0));
-
-        JLabel titleLabel = new JLabel(truncate(song.title, 28));
-        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 13));
-        titleLabel.setForeground(TEXT);
-        titleLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-
-        JLabel artistLabel = new JLabel(truncate(song.artist, 32));
-        artistLabel.setFont(new Font("Segoe UI", Font.PLAIN, 11));
-        artistLabel.setForeground(SUBTEXT);
-        artistLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-
-        infoPanel.add(titleLabel);
-        infoPanel.add(Box.createVerticalStrut(3));
-        infoPanel.add(artistLabel);
-
-        card.add(infoPanel, BorderLayout.CENTER);
-
-        // Play button (hidden by default)
-        JButton playBtn = createCircularPlayButton(30);
-        playBtn.setVisible(false);
-        playBtn.addActionListener(e -> playSong(song));
-
-        JPanel btnWrapper = new JPanel(new GridBagLayout());
-        btnWrapper.setOpaque(false);
-        btnWrapper.add(playBtn);
-        card.add(btnWrapper, BorderLayout.EAST);
-
-        // Hover effects
-        card.addMouseListener(new MouseAdapter() {
-            @Override
-            public void mouseEntered(MouseEvent e) {
-                card.setBackground(HOVER);
-                playBtn.setVisible(true);
-                card.repaint();
-            }
+                @Override
+                public void mouseExited(MouseEvent e) {
+                    setBackground(CARD_BG);
+                    playBtn.setVisible(false);
+                    repaint();
+                }
 
-            @Override
-            public void mouseExited(MouseEvent e) {
-                card.setBackground(CARD_BG);
-                playBtn.setVisible(false);
-                card.repaint();
-            }
+                @Override
+                public void mouseClicked(MouseEvent e) {
+                    if (song != null) playSong(song);
+                }
+            });
+        }
 
-            @Override
-            public void mouseClicked(MouseEvent e) {
-                playSong(song);
-            }
-        });
+        @Override
+        public void bind(SongDTO song) {
+            this.song = song;
+            setBackground(CARD_BG);
+            playBtn.setVisible(false);
+            artPanel.show(song);
+            if (song == null) return;
+            titleLabel.setText(truncate(song.title, 28));
+            artistLabel.setText(truncate(song.artist, 32));
+        }
 
-        return card;
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor(getBackground());
+            g2.fill(new RoundRectangle2D.Float(0, 0, getWidth(), getHeight(), 10, 10));
+            g2.dispose();
+        }
     }
 
     // ==================== HISTORY SECTION ====================
@@ -654,12 +573,11 @@ public class Dashboard extends JFrame {
         } else if (text.equals("Favorites")) {
             btn.addActionListener(e -> new FavoritesUI().setVisible(true));
         } else if (text.equals("Home")) {
-            btn.addActionListener(e -> {
-                loadAllSongs();
+            btn.addActionListener(e -> loadAllSongs(() -> {
                 loadTrendingSongs();
                 loadRandomSongs();
                 loadQuickPicks();
-            });
+            }));
         }
 
         btn.addMouseListener(new MouseAdapter() {
@@ -707,19 +625,13 @@ public class Dashboard extends JFrame {
             }
         });
 
+        searchDebounce = new javax.swing.Timer(SEARCH_DEBOUNCE_MS, e -> onSearchChanged());
+        searchDebounce.setRepeats(false);
+
         search.addKeyListener(new KeyAdapter() {
             @Override
             public void keyReleased(KeyEvent e) {
-                String query = search.getText().trim();
-                if (query.isEmpty() || query.contains("Search songs")) {
-                    loadTrendingSongs();
-                    // Only show random filler when not logged in; recommendations start empty for logged users
-                    if (loggedUser == null || loggedUser.isEmpty()) {
-                        loadRandomSongs();
-                    }
-                } else {
-                    performSearch(query);
-                }
+                searchDebounce.restart();
             }
         });
 
@@ -729,6 +641,15 @@ public class Dashboard extends JFrame {
         JPanel rightPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 12, 0));
         rightPanel.setBackground(BG);
 
+        // Shown while the backend is down and being restarted
+        JLabel backendStatus = new JLabel("Reconnecting to backend…");
+        backendStatus.setFont(new Font("Segoe UI", Font.ITALIC, 13));
+        backendStatus.setForeground(new Color(0xFFB020));
+        backendStatus.setVisible(BackendBridge.getState() == BackendBridge.State.RECONNECTING);
+        stopStateUpdates = BackendClient.onStateChange(state ->
+                backendStatus.setVisible(state == BackendBridge.State.RECONNECTING));
+        rightPanel.add(backendStatus);
+
         if (loggedUser != null && !loggedUser.isEmpty()) {
             // Username with gradient
             JLabel userName = new JLabel(loggedUser) {
@@ -832,6 +753,12 @@ public class Dashboard extends JFrame {
         return header;
     }
 
+    @Override
+    public void dispose() {
+        if (stopStateUpdates != null) stopStateUpdates.run();
+        super.dispose();
+    }
+
     // ==================== HELPER METHODS ====================
 
     private JButton createCircularPlayButton(int size) {
@@ -910,33 +837,59 @@ public class Dashboard extends JFrame {
         });
     }
 
-    private void performSearch(String query) {
-        trendingContainer.removeAll();
-
-        String lowerQuery = query.toLowerCase();
-        int count = 0;
-
-        for (SongDTO song : allSongs) {
-            if (song.title.toLowerCase().contains(lowerQuery) ||
-                song.artist.toLowerCase().contains(lowerQuery)) {
-                trendingContainer.add(createTrendingCard(song));
-                count++;
+    private void onSearchChanged() {
+        String query = search.getText().trim();
+        if (query.isEmpty() || query.contains("Search songs")) {
+            cancelSearch();
+            loadTrendingSongs();
+            // Only show random filler when not logged in; recommendations start empty for logged users
+            if (loggedUser == null || loggedUser.isEmpty()) {
+                loadRandomSongs();
             }
+        } else {
+            performSearch(query);
         }
+    }
 
-        if (count == 0) {
-            JLabel noResults = new JLabel("No songs found for: \"" + query + "\"");
-            noResults.setForeground(SUBTEXT);
-            noResults.setFont(new Font("Segoe UI", Font.PLAIN, 16));
-            trendingContainer.add(noResults);
+    private void cancelSearch() {
+        if (searchWorker != null) {
+            searchWorker.cancel(false);
+            searchWorker = null;
         }
+    }
+
+    private void performSearch(String query) {
+        // a newer query supersedes the one still running
+        cancelSearch();
+
+        searchWorker = new SwingWorker<>() {
+            @Override
+            protected List<SongDTO> doInBackground() {
+                // ranked by the backend; the local index covers a missing backend
+                SearchPage page = BackendBridge.searchAsync(query, SEARCH_LIMIT, 0).join();
+                if (page != null) return page.songs;
+                if (isCancelled()) return null;
+                return SongCatalog.getSearchIndex().search(query, SEARCH_LIMIT, this::isCancelled);
+            }
 
-        int cardWidth = 180;
-        int totalWidth = (cardWidth + 20) * count + 40;
-        trendingContainer.setPreferredSize(new Dimension(Math.max(totalWidth, 800), 250));
+            @Override
+            protected void done() {
+                if (searchWorker != this || isCancelled()) return;
+                searchWorker = null;
+                try {
+                    List<SongDTO> results = get();
+                    if (results != null) showSearchResults(query, results);
+                } catch (Exception e) {
+                    showSearchResults(query, List.of());
+                }
+            }
+        };
+        searchWorker.execute();
+    }
 
-        trendingContainer.revalidate();
-        trendingContainer.repaint();
+    private void showSearchResults(String query, List<SongDTO> results) {
+        trendingRow.setEmptyText("No songs found for: \"" + query + "\"");
+        trendingRow.setSongs(results);
     }
 
     private void playSong(SongDTO song) {
@@ -959,18 +912,17 @@ public class Dashboard extends JFrame {
         if (index == -1) index = 0;
         MusicPlayerUI.setQueue(allSongs, index);
 
-        // Notify backend about play (updates recently played)
-        try {
-            if (BackendBridge.isRunning()) {
-                BackendBridge.playSong(song.songId);
-            } else {
-                BackendBridge.startBackend();
-                BackendBridge.setUser(loggedUser == null ? "" : loggedUser);
-                BackendBridge.playSong(song.songId);
-            }
-        } catch (Exception ex) {
-            // ignore backend errors for playback
+        // Notify backend about play (updates recently played) and queue the
+        // history + recommendation fetches behind it in the same round trip.
+        // All of it runs off the EDT; results come back to it below.
+        // a backend being restarted gets the session back from the supervisor
+        if (BackendBridge.getState() == BackendBridge.State.STOPPED) {
+            BackendClient.setUser(loggedUser == null ? "" : loggedUser);
         }
+        BackendClient.playSong(song.songId);
+        CompletableFuture<List<SongDTO>> recentsFuture = BackendClient.getRecent();
+        // a few spares in case some are already on the shelf
+        CompletableFuture<List<SongDTO>> recsFuture = BackendClient.recommend(song.songId, RECOMMEND_FETCH);
 
         // Open player
         new MusicPlayerUI(song.songId,
@@ -982,38 +934,33 @@ public class Dashboard extends JFrame {
                   null).setVisible(true);
 
         // Refresh history panel
-        loadHistory();
+        recentsFuture.handle((recents, err) -> err == null ? recents : List.<SongDTO>of())
+                     .thenAccept(this::showHistory);
 
-        // Fetch recommendations for the played song and append a few
-        try {
-            if (!BackendBridge.isRunning()) BackendBridge.startBackend();
-            List<SongDTO> recs = BackendBridge.recommend(song.songId);
-            appendRecommendations(recs, 3);
-        } catch (Exception ex) {
-            // ignore recommendation failures
-        }
+        // Append a few recommendations for the played song once they arrive
+        recsFuture.handle((recs, err) -> err == null ? recs : List.<SongDTO>of())
+                  .thenAccept(recs -> appendRecommendations(recs, RECOMMEND_SHOWN));
     }
 
     private void appendRecommendations(List<SongDTO> recs, int maxToAdd) {
-        if (randomContainer == null) return;
+        if (randomRow == null) return;
 
-        int added = 0;
+        List<SongDTO> added = new ArrayList<>();
 
         // First try backend recommendations
         if (recs != null) {
             for (SongDTO s : recs) {
-                if (added >= maxToAdd) break;
+                if (added.size() >= maxToAdd) break;
                 if (s == null) continue;
                 if (s.songId == -1) continue;
                 if (recommendedIds.contains(s.songId)) continue;
                 recommendedIds.add(s.songId);
-                randomContainer.add(createTrendingCard(s));
-                added++;
+                added.add(s);
             }
         }
 
         // If backend provided fewer than requested, fill with random picks
-        if (added < maxToAdd) {
+        if (added.size() < maxToAdd) {
             List<SongDTO> candidates = new ArrayList<>();
             for (SongDTO s : allSongs) {
                 if (s == null) continue;
@@ -1023,34 +970,31 @@ public class Dashboard extends JFrame {
             }
             Collections.shuffle(candidates);
             for (SongDTO s : candidates) {
-                if (added >= maxToAdd) break;
+                if (added.size() >= maxToAdd) break;
                 recommendedIds.add(s.songId);
-                randomContainer.add(createTrendingCard(s));
-                added++;
+                added.add(s);
             }
         }
 
-        // Update size and repaint
-        int cardWidth = 180;
-        int gap = 18;
-        int compCount = randomContainer.getComponentCount();
-        int totalWidth = (cardWidth + gap) * Math.max(1, compCount) + 40;
-        randomContainer.setPreferredSize(new Dimension(totalWidth, 230));
-        randomContainer.revalidate();
-        randomContainer.repaint();
+        randomRow.addSongs(added);
     }
 
     private void loadHistory() {
         if (historyPanel == null) return;
-        historyPanel.removeAll();
 
-        List<SongDTO> recents;
-        try {
-            if (!BackendBridge.isRunning()) BackendBridge.startBackend();
-            recents = BackendBridge.getRecent();
-        } catch (Exception e) {
-            recents = List.of();
-        }
+        JLabel loading = new JLabel("Loading history…");
+        loading.setForeground(SUBTEXT);
+        loading.setFont(new Font("Segoe UI", Font.ITALIC, 14));
+        historyPanel.add(loading);
+
+        BackendClient.getRecent()
+                .handle((recents, err) -> err == null ? recents : List.<SongDTO>of())
+                .thenAccept(this::showHistory);
+    }
+
+    private void showHistory(List<SongDTO> recents) {
+        if (historyPanel == null) return;
+        historyPanel.removeAll();
 
         if (recents.isEmpty()) {
             JLabel placeholder = new JLabel("Play some songs to see your history here");
@@ -1064,7 +1008,8 @@ public class Dashboard extends JFrame {
         }
 
         for (SongDTO s : recents) {
-            JPanel card = createQuickPickCard(s);
+            QuickPickCard card = new QuickPickCard();
+            card.bind(s);
             historyPanel.add(card);
         }
 
@@ -0,0 +1,87 @@
+import javax.swing.SwingUtilities;
+import java.awt.Window;
+
+/*
+ * EdtWatchdog
+ * Logs whenever the Event Dispatch Thread stops responding.
+ *
+ * A daemon thread posts a no-op to the EDT every CHECK_MS and watches how
+ * long it waits to run. Past the threshold (-Dsoundraft.edt.watchdogMs,
+ * default 200, 0 disables) it prints the EDT's stack once, so the call
+ * that is blocking it shows up, and reports the total stall when the EDT
+ * catches up. Pings are only sent while a window is open, so the watchdog
+ * never keeps AWT from shutting down. Blocking BackendBridge calls made on
+ * the EDT are reported by name through blockingCall().
+ */
+public class EdtWatchdog {
+
+    private static final long THRESHOLD_MS =
+            Math.max(0, Integer.getInteger("soundraft.edt.watchdogMs", 200));
+    private static final long CHECK_MS = 50;
+
+    private static volatile Thread edt;
+    private static volatile long pendingSince = 0;     // nanoTime of the unanswered ping, 0 = none
+    private static boolean started = false;
+
+    public static synchronized void install() {
+        if (started || THRESHOLD_MS == 0) return;
+        started = true;
+
+        SwingUtilities.invokeLater(() -> edt = Thread.currentThread());
+
+        Thread t = new Thread(EdtWatchdog::watch, "edt-watchdog");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private static void watch() {
+        boolean reported = false;
+        while (true) {
+            try {
+                Thread.sleep(CHECK_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            long since = pendingSince;
+            if (since == 0) {
+                if (!anyWindowOpen()) continue;
+                pendingSince = System.nanoTime();
+                SwingUtilities.invokeLater(() -> {
+                    long waited = (System.nanoTime() - pendingSince) / 1_000_000;
+                    pendingSince = 0;
+                    if (waited >= THRESHOLD_MS) {
+                        System.err.println("[edt] EDT was blocked for " + waited + " ms");
+                    }
+                });
+                reported = false;
+                continue;
+            }
+
+            long blocked = (System.nanoTime() - since) / 1_000_000;
+            Thread t = edt;
+            if (!reported && blocked >= THRESHOLD_MS && t != null) {
+                reported = true;
+                StringBuilder trace = new StringBuilder("[edt] EDT blocked for " + blocked + " ms at:");
+                for (StackTraceElement e : t.getStackTrace()) trace.append("\n\tat ").append(e);
+                System.err.println(trace);
+            }
+        }
+    }
+
+    private static boolean anyWindowOpen() {
+        for (Window w : Window.getWindows()) {
+            if (w.isDisplayable()) return true;
+        }
+        return false;
+    }
+
+    // Called after a blocking backend call; logs it when it held up the EDT
+    public static void blockingCall(String what, long startNanos) {
+        if (THRESHOLD_MS == 0 || !SwingUtilities.isEventDispatchThread()) return;
+        long ms = (System.nanoTime() - startNanos) / 1_000_000;
+        if (ms >= THRESHOLD_MS) {
+            System.err.println("[edt] " + what + " blocked the EDT for " + ms + " ms");
+        }
+    }
+}
@@ -1,9 +1,12 @@
 import javax.swing.*;
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.List;
 
 public class FavoritesUI extends JFrame {
 
+    private PagedSongListModel favorites;
+
     public FavoritesUI() {
         super("Favorites Playlist");
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
@@ -12,20 +15,6 @@ public class FavoritesUI extends JFrame {
         setLayout(null);
         getContentPane().setBackground(new Color(0x0E0E11));
 
-        // Ensure backend is running
-        try {
-            if (!BackendBridge.isRunning()) {
-                BackendBridge.startBackend();
-            }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(
-                this,
-                "Backend is not running!",
-                "Error",
-                JOptionPane.ERROR_MESSAGE
-            );
-        }
-
         // Back button
         JButton back = new JButton("✕");
         back.setBounds(20, 20, 50, 40);
@@ -49,15 +38,10 @@ public class FavoritesUI extends JFrame {
         addLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
         add(addLabel);
 
-        // Dropdown for song selection
-        List<SongDTO> allSongs = BackendBridge.getAllSongs();
-        String[] songOptions = new String[allSongs.size()];
-        for (int i = 0; i < allSongs.size(); i++) {
-            SongDTO song = allSongs.get(i);
-            songOptions[i] = song.songId + ": " + song.title + " - " + song.artist;
-        }
-
-        JComboBox<String> songDropdown = new JComboBox<>(songOptions);
+        // Dropdown for song selection, filled once the catalog arrives
+        List<SongDTO> allSongs = new ArrayList<>();
+        JComboBox<String> songDropdown = new JComboBox<>(new String[] {"Loading songs…"});
+        songDropdown.setEnabled(false);
         songDropdown.setBounds(100, 110, 400, 35);
         songDropdown.setBackground(new Color(0x1C1C22));
         songDropdown.setForeground(Color.WHITE);
@@ -70,126 +54,80 @@ public class FavoritesUI extends JFrame {
         addBtn.setForeground(Color.BLACK);
         addBtn.setFocusPainted(false);
         addBtn.setFont(new Font("Segoe UI", Font.BOLD, 13));
+        addBtn.setEnabled(false);
         addBtn.addActionListener(e -> {
             if (songDropdown.getSelectedIndex() >= 0) {
                 SongDTO selectedSong = allSongs.get(songDropdown.getSelectedIndex());
-                BackendBridge.addFavorite(selectedSong.songId);
-                songDropdown.setSelectedIndex(0);
-                JOptionPane.showMessageDialog(this, "Song added to favorites!");
-                updateFavoritesDisplay();
+                addBtn.setEnabled(false);
+                BackendClient.addFavorite(selectedSong.songId).whenComplete((ok, err) -> {
+                    addBtn.setEnabled(true);
+                    if (err == null && ok) {
+                        songDropdown.setSelectedIndex(0);
+                        JOptionPane.showMessageDialog(this, "Song added to favorites!");
+                        updateFavoritesDisplay();
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Failed to add song", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                });
             }
         });
         add(addBtn);
 
-        JPanel listPanel = new JPanel(null);
-        listPanel.setBackground(new Color(0x0E0E11));
+        BackendClient.catalog().thenAccept(songs -> {
+            allSongs.addAll(songs);
+            songDropdown.removeAllItems();
+            for (SongDTO song : songs) {
+                songDropdown.addItem(song.songId + ": " + song.title + " - " + song.artist);
+            }
+            songDropdown.setEnabled(true);
+            addBtn.setEnabled(true);
+        });
+
+        // Rows are fetched a page at a time and painted by one shared renderer
+        favorites = new PagedSongListModel(BackendClient::getFavoritesPage);
+        SongRowList list = new SongRowList(favorites, 600, new Color(0x0E0E11), new Color(0x29292E),
+                Color.WHITE, new Color(0xA2A2A8), 18, "No favorite songs yet",
+                (song, index) -> playSong(song),
+                (song, index) -> BackendClient.removeFavorite(song.songId).thenAccept(ok -> {
+                    if (ok) favorites.remove(index, song);
+                }));
 
-        JScrollPane scroll = new JScrollPane(listPanel);
+        JScrollPane scroll = new JScrollPane(list);
         scroll.setBounds(100, 170, 650, 450);
         scroll.setBorder(null);
         scroll.getViewport().setBackground(new Color(0x0E0E11));
+        scroll.getVerticalScrollBar().setUnitIncrement(30);
         add(scroll);
 
-        loadSongs(listPanel);
+        favorites.reload();
         setVisible(true);
     }
 
     private void updateFavoritesDisplay() {
-        // This would be called after adding a favorite
-        // The display updates automatically in loadSongs
+        // the new favorite's place in song id order is not known locally
+        favorites.reload();
     }
 
-    private void loadSongs(JPanel list) {
-
-        list.removeAll();
-
-        int y = 0;
-        List<SongDTO> favorites;
-
-        try {
-            favorites = BackendBridge.getFavorites();
-        } catch (Exception e) {
-            favorites = List.of();
-        }
-
-        if (favorites.isEmpty()) {
-            JLabel empty = new JLabel("No favorite songs yet");
-            empty.setBounds(20, 20, 400, 30);
-            empty.setForeground(new Color(0xA2A2A8));
-            empty.setFont(new Font("Segoe UI", Font.ITALIC, 18));
-            list.add(empty);
-            list.setPreferredSize(new Dimension(500, 80));
+    private void playSong(SongDTO song) {
+        if (song.filePath == null || song.filePath.isEmpty()) {
+            JOptionPane.showMessageDialog(
+                this,
+                "Song file not found",
+                "Error",
+                JOptionPane.ERROR_MESSAGE
+            );
             return;
         }
 
-        for (SongDTO song : favorites) {
-
-            JPanel row = new JPanel(null);
-            row.setBounds(0, y, 600, 50);
-            row.setBackground(new Color(0x29292E));
-
-            JLabel name = new JLabel(song.title + " — " + song.artist);
-            name.setBounds(20, 10, 360, 30);
-            name.setForeground(Color.WHITE);
-            name.setFont(new Font("Segoe UI", Font.PLAIN, 18));
-            row.add(name);
-
-            // PLAY button
-            JButton playBtn = new JButton("Play");
-            playBtn.setBounds(390, 10, 70, 30);
-            playBtn.setBackground(new Color(0x525252));
-            playBtn.setForeground(Color.WHITE);
-            playBtn.setBorder(null);
-            playBtn.setFocusPainted(false);
-
-            playBtn.addActionListener(e -> {
-                if (song.filePath == null || song.filePath.isEmpty()) {
-                    JOptionPane.showMessageDialog(
-                        this,
-                        "Song file not found",
-                        "Error",
-                        JOptionPane.ERROR_MESSAGE
-                    );
-                    return;
-                }
-
-                new MusicPlayerUI(
-                    song.songId,
-                    song.filePath,
-                    song.title,
-                    song.artist,
-                    song.duration,
-                    song.imagePath,
-                    null
-                ).setVisible(true);
-            });
-
-            row.add(playBtn);
-
-            // REMOVE button
-            JButton removeBtn = new JButton("Remove");
-            removeBtn.setBounds(470, 10, 100, 30);
-            removeBtn.setBackground(new Color(0xFF3B30));
-            removeBtn.setForeground(Color.WHITE);
-            removeBtn.setBorder(null);
-            removeBtn.setFocusPainted(false);
-
-            removeBtn.addActionListener(e -> {
-                BackendBridge.removeFavorite(song.songId);
-                loadSongs(list);
-                list.revalidate();
-                list.repaint();
-            });
-
-            row.add(removeBtn);
-
-            list.add(row);
-            y += 60;
-        }
-
-        list.setPreferredSize(new Dimension(600, y + 20));
-        list.revalidate();
-        list.repaint();
+        new MusicPlayerUI(
+            song.songId,
+            song.filePath,
+            song.title,
+            song.artist,
+            song.duration,
+            song.imagePath,
+            null
+        ).setVisible(true);
     }
 
     public static void main(String[] args) {
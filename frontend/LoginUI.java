@@ -89,19 +89,20 @@ public class LoginUI extends JFrame {
 
         // ================= NEW ARCHITECTURE LOGIN =================
    loginBtn.addActionListener(e -> {
-    new Thread(() -> {
-        boolean ok = BackendBridge.login(username.getText(), new String(password.getPassword()));
-
-        SwingUtilities.invokeLater(() -> {
-            if(ok){
-                BackendBridge.setUser(username.getText());
-                new Dashboard(username.getText()).setVisible(true);
+    String user = username.getText();
+    loginBtn.setEnabled(false);
+    BackendClient.login(user, new String(password.getPassword()))
+        .thenCompose(ok -> ok ? BackendClient.setUser(user).thenApply(v -> true)
+                              : java.util.concurrent.CompletableFuture.completedFuture(false))
+        .whenComplete((ok, err) -> {
+            loginBtn.setEnabled(true);
+            if (err == null && ok) {
+                new Dashboard(user).setVisible(true);
                 dispose();
             } else {
                 JOptionPane.showMessageDialog(null,"Invalid Credentials");
             }
         });
-    }).start();
 });
 
 
@@ -1,6 +1,8 @@
 import javax.swing.SwingUtilities;
 public class Main {
     public static void main(String[] args) {
+        EdtWatchdog.install();
+
         try {
             BackendBridge.startBackend();
         } catch(Exception e) {
@@ -4,12 +4,12 @@ import java.awt.event.*;
 import java.awt.geom.*;
 import java.awt.image.*;
 import java.io.*;
-import javax.imageio.ImageIO;
 import javax.sound.sampled.*;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 public class MusicPlayerUI extends JFrame {
 
@@ -18,13 +18,15 @@ public class MusicPlayerUI extends JFrame {
     private final Color ACCENT = new Color(0x1DB954);
     private final Color ACCENT_RED = new Color(0xFF3B30);
 
+    // Album art is drawn at most this large; covers are downsampled to it
+    private static final int ART_SIZE = 720;
+
     // Playback
-    private volatile Clip audioClip;
+    private volatile AudioStreamPlayer player;
     private volatile boolean playing = false;
     private volatile boolean isPaused = false;
     private File currentFile;
     private int durationSeconds = 0;
-    private long clipPosition = 0;
 
     // Volume
     private float currentVolume = 0.7f;
@@ -43,9 +45,17 @@ public class MusicPlayerUI extends JFrame {
     private Timer progressTimer;
     private int elapsedSeconds = 0;
 
-    // Background loader for audio to avoid blocking EDT
+    // Background opener for the audio stream to avoid blocking EDT
     private SwingWorker<Void, Void> loaderWorker;
 
+    // Gapless: the next queue entry is preloaded during the last seconds
+    private static final int PRELOAD_SECONDS = 10;
+    private SwingWorker<Void, Void> preloadWorker;
+    private static final int NOT_CHAINED = -2;
+    private int preloadedIndex = -1;        // queue entry chained into the player, -1 none yet
+    private int artworkIndex = -1;          // queue entry nextArtwork belongs to
+    private Artwork nextArtwork;
+
     // Images
     private BufferedImage originalImage = null;
     private BufferedImage blurredBackground = null;
@@ -65,6 +75,11 @@ public class MusicPlayerUI extends JFrame {
     private boolean isFavorite = false;
     private JLabel heartLabel;
 
+    // Favorite flags of the current song and the next queue entries,
+    // fetched together so skipping tracks does not round-trip per song
+    private static final int FAVORITE_PREFETCH = 32;
+    private final java.util.Map<Integer, Boolean> favoriteStatus = new java.util.HashMap<>();
+
     // Mode
     private boolean isCompactMode = false;
     private JPanel centerPanel;
@@ -148,92 +163,73 @@ public class MusicPlayerUI extends JFrame {
         return null;
     }
 
+    // Cover and blurred backdrop of one track, built off the EDT when preloading
+    private static final class Artwork {
+        final BufferedImage original;
+        final BufferedImage blurred;
+        final String path;
+
+        Artwork(BufferedImage original, BufferedImage blurred, String path) {
+            this.original = original;
+            this.blurred = blurred;
+            this.path = path;
+        }
+    }
+
+    // Decodes the cover off the EDT; the placeholder shows until it arrives
     private void loadImages() {
         originalImage = null;
         blurredBackground = null;
 
-        // Try provided imagePath first
-        if (imagePath != null && !imagePath.trim().isEmpty()) {
-            try {
-                File imgFile = new File(imagePath);
-                if (imgFile.exists()) {
-                    originalImage = ImageIO.read(imgFile);
-                }
-            } catch (Exception e) {
-                System.err.println("Failed to load image from imagePath: " + e.getMessage());
+        int id = songId;
+        String path = imagePath;
+        File audio = currentFile;
+        new SwingWorker<Artwork, Void>() {
+            @Override
+            protected Artwork doInBackground() {
+                return loadArtwork(id, path, audio);
             }
-        }
 
-        // Fallback: try to find image based on audio file name
-        if (originalImage == null) {
-            String foundPath = findImageForSong(currentFile.getAbsolutePath());
-            if (foundPath != null) {
+            @Override
+            protected void done() {
+                if (songId != id || currentFile != audio) return;    // track changed meanwhile
                 try {
-                    originalImage = ImageIO.read(new File(foundPath));
-                    imagePath = foundPath;
+                    applyArtwork(get());
                 } catch (Exception e) {
-                    System.err.println("Failed to load fallback image: " + e.getMessage());
+                    return;
                 }
+                if (centerPanel != null) centerPanel.repaint();
+                if (albumArtPanel != null) albumArtPanel.repaint();
             }
-        }
-
-        // Create blurred background
-        if (originalImage != null) {
-            blurredBackground = createBlurredImage(originalImage, 40);
-        }
+        }.execute();
     }
 
-    private BufferedImage createBlurredImage(BufferedImage source, int radius) {
-        // First, scale down the image for faster blur
-        int smallWidth = 100;
-        int smallHeight = (int) (source.getHeight() * (100.0 / source.getWidth()));
-
-        BufferedImage small = new BufferedImage(smallWidth, smallHeight, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = small.createGraphics();
-        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-        g.drawImage(source, 0, 0, smallWidth, smallHeight, null);
-        g.dispose();
-
-        // Apply box blur multiple times
-        BufferedImage blurred = small;
-        for (int i = 0; i < 6; i++) {
-            blurred = applyBoxBlur(blurred, 8);
-        }
-
-        return blurred;
+    private void applyArtwork(Artwork art) {
+        originalImage = art.original;
+        blurredBackground = art.blurred;
+        imagePath = art.path;
     }
 
-    private BufferedImage applyBoxBlur(BufferedImage source, int radius) {
-        int w = source.getWidth();
-        int h = source.getHeight();
-        BufferedImage result = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
-
-        for (int y = 0; y < h; y++) {
-            for (int x = 0; x < w; x++) {
-                int r = 0, g = 0, b = 0, a = 0, count = 0;
-
-                for (int dy = -radius; dy <= radius; dy++) {
-                    for (int dx = -radius; dx <= radius; dx++) {
-                        int nx = Math.max(0, Math.min(w - 1, x + dx));
-                        int ny = Math.max(0, Math.min(h - 1, y + dy));
-                        int pixel = source.getRGB(nx, ny);
-                        a += (pixel >> 24) & 0xFF;
-                        r += (pixel >> 16) & 0xFF;
-                        g += (pixel >> 8) & 0xFF;
-                        b += pixel & 0xFF;
-                        count++;
-                    }
-                }
+    private Artwork loadArtwork(int id, String imgPath, File audioFile) {
+        BufferedImage original = null;
 
-                int avgA = a / count;
-                int avgR = r / count;
-                int avgG = g / count;
-                int avgB = b / count;
-                result.setRGB(x, y, (avgA << 24) | (avgR << 16) | (avgG << 8) | avgB);
+        // Try provided imagePath first
+        if (imgPath != null && !imgPath.trim().isEmpty()) {
+            original = ArtworkLoader.load(id, imgPath, ART_SIZE);
+        }
+
+        // Fallback: try to find image based on audio file name
+        if (original == null) {
+            String foundPath = findImageForSong(audioFile.getAbsolutePath());
+            if (foundPath != null) {
+                original = ArtworkLoader.load(id, foundPath, ART_SIZE);
+                if (original != null) imgPath = foundPath;
             }
         }
 
-        return result;
+        // Blurred background, cached per song in memory and next to the cover
+        BufferedImage blurred = ArtworkBlur.forSong(id, original, imgPath);
+        return new Artwork(original, blurred, imgPath);
     }
 
     private void buildUI() {
@@ -633,25 +629,55 @@ public class MusicPlayerUI extends JFrame {
     }
 
     private void checkFavoriteStatus() {
-        try {
-            if (BackendBridge.isFavorite(songId)) {
-                isFavorite = true;
-                heartLabel.setText("♥");
-                heartLabel.setForeground(ACCENT_RED);
+        if (favoriteStatus.containsKey(songId)) {
+            showFavorite(favoriteStatus.get(songId));
+            return;
+        }
+
+        // the heart stays empty until the backend answers off the EDT
+        int requestedFor = songId;
+        prefetchFavoriteStatus().thenAccept(v -> {
+            if (songId == requestedFor && favoriteStatus.containsKey(songId)) {
+                showFavorite(favoriteStatus.get(songId));
             }
-        } catch (Exception e) {}
+        });
+    }
+
+    private void showFavorite(boolean favorite) {
+        if (!favorite) return;
+        isFavorite = true;
+        heartLabel.setText("♥");
+        heartLabel.setForeground(ACCENT_RED);
+    }
+
+    private CompletableFuture<Void> prefetchFavoriteStatus() {
+        List<Integer> ids = new ArrayList<>();
+        ids.add(songId);
+        for (int i = currentQueueIndex + 1; i < songQueue.size() && ids.size() < FAVORITE_PREFETCH; i++) {
+            ids.add(songQueue.get(i).songId);
+        }
+
+        // one window at a time, re-read as playback moves on; hearts toggled
+        // while the answer is on its way keep their new state
+        favoriteStatus.clear();
+        return BackendClient.favoritesAmong(ids)
+                .exceptionally(e -> java.util.Set.of())
+                .thenAccept(favorites -> {
+                    for (int id : ids) favoriteStatus.putIfAbsent(id, favorites.contains(id));
+                });
     }
 
     private void toggleFavorite() {
         isFavorite = !isFavorite;
+        favoriteStatus.put(songId, isFavorite);
         if (isFavorite) {
             heartLabel.setText("♥");
             heartLabel.setForeground(ACCENT_RED);
-            try { BackendBridge.addFavorite(songId); } catch (Exception e) {}
+            BackendClient.addFavorite(songId);
         } else {
             heartLabel.setText("♡");
             heartLabel.setForeground(Color.WHITE);
-            try { BackendBridge.removeFavorite(songId); } catch (Exception e) {}
+            BackendClient.removeFavorite(songId);
         }
     }
 
@@ -702,39 +728,22 @@ public class MusicPlayerUI extends JFrame {
         // Ensure previous playback/loader is stopped
         stopPlayback();
 
-        // Use a background worker to avoid blocking the EDT while decoding/loading audio
+        // Opening only reads the header and the output line; decoding is
+        // streamed by the player so audio starts after the first chunk
         loaderWorker = new SwingWorker<>() {
             private Exception workerEx = null;
-            private Clip loadedClip = null;
-            private FloatControl loadedVolume = null;
+            private AudioStreamPlayer opened = null;
 
             @Override
             protected Void doInBackground() {
-                try (AudioInputStream audioStream = AudioSystem.getAudioInputStream(currentFile)) {
-                    AudioFormat baseFormat = audioStream.getFormat();
-
-                    AudioFormat decodedFormat = new AudioFormat(
-                        AudioFormat.Encoding.PCM_SIGNED,
-                        baseFormat.getSampleRate(),
-                        16,
-                        baseFormat.getChannels(),
-                        baseFormat.getChannels() * 2,
-                        baseFormat.getSampleRate(),
-                        false
-                    );
-
-                    try (AudioInputStream decodedStream = AudioSystem.getAudioInputStream(decodedFormat, audioStream)) {
-                        Clip clip = AudioSystem.getClip();
-                        clip.open(decodedStream);
-
-                        if (clip.isControlSupported(FloatControl.Type.MASTER_GAIN)) {
-                            loadedVolume = (FloatControl) clip.getControl(FloatControl.Type.MASTER_GAIN);
-                        }
-
-                        loadedClip = clip;
+                try {
+                    AudioStreamPlayer p = AudioStreamPlayer.open(currentFile);
+                    // done() of a cancelled worker may already have run, so
+                    // whoever sees the cancel second closes the player
+                    synchronized (this) {
+                        if (isCancelled()) p.close();
+                        else opened = p;
                     }
-                } catch (UnsupportedAudioFileException e) {
-                    workerEx = e;
                 } catch (Exception e) {
                     workerEx = e;
                 }
@@ -743,53 +752,62 @@ public class MusicPlayerUI extends JFrame {
 
             @Override
             protected void done() {
-                loaderWorker = null;
-                if (workerEx != null) {
-                    SwingUtilities.invokeLater(() -> {
-                        JOptionPane.showMessageDialog(MusicPlayerUI.this,
-                            "Failed to play: " + workerEx.getMessage(),
-                            "Playback Error", JOptionPane.ERROR_MESSAGE);
-                    });
-                    if (loadedClip != null) {
-                        try { loadedClip.close(); } catch (Exception ignored) {}
+                if (loaderWorker == this) loaderWorker = null;
+                if (isCancelled()) {
+                    synchronized (this) {
+                        if (opened != null) opened.close();
+                        opened = null;
                     }
                     return;
                 }
+                if (workerEx != null) {
+                    JOptionPane.showMessageDialog(MusicPlayerUI.this,
+                        "Failed to play: " + workerEx.getMessage(),
+                        "Playback Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
 
-                // Assign loaded clip to audioClip field and start
-                audioClip = loadedClip;
-                volumeControl = loadedVolume;
+                player = opened;
+                volumeControl = player.getGainControl();
 
-                if (audioClip == null) return;
+                AudioStreamPlayer localPlayer = player;
+                player.setListener(new AudioStreamPlayer.Listener() {
+                    @Override
+                    public void onEnd() {
+                        SwingUtilities.invokeLater(() -> {
+                            if (player == localPlayer) onSongEnded();
+                        });
+                    }
+
+                    @Override
+                    public void onTrackChanged(File file) {
+                        SwingUtilities.invokeLater(() -> {
+                            if (player == localPlayer) onGaplessHandover();
+                        });
+                    }
 
-                // Add line listener that checks for natural end
-                Clip localClip = audioClip;
-                audioClip.addLineListener(event -> {
-                    if (event.getType() == LineEvent.Type.STOP && playing && !isPaused) {
-                        if (localClip.getFramePosition() >= localClip.getFrameLength()) {
-                            SwingUtilities.invokeLater(MusicPlayerUI.this::onSongEnded);
-                        }
+                    @Override
+                    public void onError(Exception e) {
+                        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(MusicPlayerUI.this,
+                            "Failed to play: " + e.getMessage(),
+                            "Playback Error", JOptionPane.ERROR_MESSAGE));
                     }
                 });
 
                 // Apply volume and start
                 if (volumeControl != null) applyVolume();
 
-                try {
-                    audioClip.start();
-                    playing = true;
-                    isPaused = false;
-
-                    if (durationSeconds <= 0) {
-                        durationSeconds = (int) (audioClip.getMicrosecondLength() / 1_000_000);
-                        remainingLabel.setText("-" + formatTime(durationSeconds));
-                    }
+                player.play();
+                playing = true;
+                isPaused = false;
 
-                    playPauseBtn.repaint();
-                    startProgressTimer();
-                } catch (Exception e) {
-                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(MusicPlayerUI.this, "Failed to start playback: " + e.getMessage()));
+                if (durationSeconds <= 0 && player.getDurationMicros() > 0) {
+                    durationSeconds = (int) (player.getDurationMicros() / 1_000_000);
+                    remainingLabel.setText("-" + formatTime(durationSeconds));
                 }
+
+                playPauseBtn.repaint();
+                startProgressTimer();
             }
         };
 
@@ -797,18 +815,14 @@ public class MusicPlayerUI extends JFrame {
     }
 
     private void togglePlayPause() {
-        if (audioClip == null) return;
+        if (player == null) return;
 
         if (playing && !isPaused) {
-            clipPosition = audioClip.getMicrosecondPosition();
-            audioClip.stop();
+            player.pause();
             isPaused = true;
             stopProgressTimer();
         } else {
-            if (isPaused) {
-                audioClip.setMicrosecondPosition(clipPosition);
-            }
-            audioClip.start();
+            player.resume();
             playing = true;
             isPaused = false;
             startProgressTimer();
@@ -817,20 +831,19 @@ public class MusicPlayerUI extends JFrame {
     }
 
     private void seekTo(int seconds) {
-        if (audioClip == null) return;
+        if (player == null) return;
 
         long micros = (long) seconds * 1_000_000;
-        audioClip.setMicrosecondPosition(micros);
+        player.seek(micros);
         elapsedSeconds = seconds;
 
+        // a seek drops a handover that was already queued in the line
+        if (!player.hasNext()) preloadedIndex = -1;
+
         float pct = (durationSeconds > 0) ? (float) seconds / durationSeconds : 0f;
         progressBar.setProgress(pct);
         elapsedLabel.setText(formatTime(seconds));
         remainingLabel.setText("-" + formatTime(durationSeconds - seconds));
-
-        if (!playing || isPaused) {
-            clipPosition = micros;
-        }
     }
 
     private void stopPlayback() {
@@ -843,15 +856,17 @@ public class MusicPlayerUI extends JFrame {
             loaderWorker.cancel(true);
             loaderWorker = null;
         }
+        if (preloadWorker != null && !preloadWorker.isDone()) {
+            preloadWorker.cancel(false);
+        }
+        preloadWorker = null;
+        preloadedIndex = -1;
 
-        if (audioClip != null) {
-            try {
-                audioClip.stop();
-            } catch (Exception ignored) {}
+        if (player != null) {
             try {
-                audioClip.close();
+                player.close();
             } catch (Exception ignored) {}
-            audioClip = null;
+            player = null;
         }
         volumeControl = null;
     }
@@ -901,16 +916,31 @@ public class MusicPlayerUI extends JFrame {
         if (index < 0 || index >= songQueue.size()) return;
 
         stopPlayback();
+        showSong(index);
+
+        if (currentFile.exists()) {
+            startPlayback();
+        }
+    }
 
+    // Switches title, artwork and progress to a queue entry without touching playback
+    private void showSong(int index) {
         SongDTO song = songQueue.get(index);
+        songId = song.songId;
         currentFile = new File(song.filePath);
         title = song.title;
         artist = song.artist;
         durationSeconds = song.duration;
         imagePath = song.imagePath;
 
-        // Reload images
-        loadImages();
+        // Reuse the artwork prepared while the previous track was ending
+        if (artworkIndex == index && nextArtwork != null) {
+            applyArtwork(nextArtwork);
+        } else {
+            loadImages();
+        }
+        nextArtwork = null;
+        artworkIndex = -1;
 
         // Update UI
         titleLabel.setText(title);
@@ -929,20 +959,71 @@ public class MusicPlayerUI extends JFrame {
         heartLabel.setText("♡");
         heartLabel.setForeground(Color.WHITE);
         checkFavoriteStatus();
+    }
 
-        if (currentFile.exists()) {
-            startPlayback();
+    // ==================== GAPLESS ====================
+
+    // The player already plays the preloaded entry; only the UI has to follow
+    private void onGaplessHandover() {
+        if (preloadedIndex < 0 || preloadedIndex >= songQueue.size()) return;
+
+        currentQueueIndex = preloadedIndex;
+        preloadedIndex = -1;
+        showSong(currentQueueIndex);
+
+        AudioStreamPlayer p = player;
+        if (durationSeconds <= 0 && p != null && p.getDurationMicros() > 0) {
+            durationSeconds = (int) (p.getDurationMicros() / 1_000_000);
+            remainingLabel.setText("-" + formatTime(durationSeconds));
         }
     }
 
+    // Called from the progress timer on the EDT once the track nears its end
+    private void maybePreloadNext(AudioStreamPlayer p, int remainingSeconds) {
+        if (songQueue.isEmpty() || p != player || remainingSeconds > PRELOAD_SECONDS) return;
+        if (preloadWorker != null || preloadedIndex != -1 || p.hasNext()) return;
+
+        int nextIndex = (currentQueueIndex + 1) % songQueue.size();
+        SongDTO next = songQueue.get(nextIndex);
+        File nextFile = new File(next.filePath);
+        if (!nextFile.exists()) return;
+
+        preloadWorker = new SwingWorker<>() {
+            private Artwork art;
+            private boolean chained;
+
+            @Override
+            protected Void doInBackground() {
+                art = loadArtwork(next.songId, next.imagePath, nextFile);
+                chained = !isCancelled() && p.preloadNext(nextFile);
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                if (preloadWorker != this) return;
+                preloadWorker = null;
+                if (player != p) return;
+
+                // artwork is kept even when the formats differ and the
+                // next track has to be opened the normal way
+                nextArtwork = art;
+                artworkIndex = nextIndex;
+                preloadedIndex = chained ? nextIndex : NOT_CHAINED;
+            }
+        };
+        preloadWorker.execute();
+    }
+
     private void startProgressTimer() {
         stopProgressTimer();
         progressTimer = new Timer();
         progressTimer.scheduleAtFixedRate(new TimerTask() {
             public void run() {
-                if (!playing || isPaused || audioClip == null) return;
+                AudioStreamPlayer p = player;
+                if (!playing || isPaused || p == null) return;
 
-                long micros = audioClip.getMicrosecondPosition();
+                long micros = p.getMicrosecondPosition();
                 elapsedSeconds = (int) (micros / 1_000_000);
 
                 if (elapsedSeconds > durationSeconds) {
@@ -950,8 +1031,10 @@ public class MusicPlayerUI extends JFrame {
                 }
 
                 float pct = (durationSeconds > 0) ? (float) elapsedSeconds / durationSeconds : 0f;
+                int remaining = durationSeconds - elapsedSeconds;
 
                 SwingUtilities.invokeLater(() -> {
+                    maybePreloadNext(p, remaining);
                     progressBar.setProgress(pct);
                     elapsedLabel.setText(formatTime(elapsedSeconds));
                     remainingLabel.setText("-" + formatTime(durationSeconds - elapsedSeconds));
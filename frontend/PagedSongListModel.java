@@ -0,0 +1,140 @@
+import javax.swing.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/*
+ * PagedSongListModel
+ * List model for song lists that live in the backend and may be long.
+ *
+ * Only the total is known up front. Rows are fetched PAGE_SIZE at a time
+ * when the list first asks for them and read as null until their page
+ * arrives. remove() drops one row after the backend has removed it, so an
+ * edit is a single row update rather than a reload. Pages that were in
+ * flight during an edit are discarded and fetched again with the new
+ * offsets.
+ */
+public class PagedSongListModel extends AbstractListModel<SongDTO> {
+
+    public static final int PAGE_SIZE = 100;
+
+    public interface PageSource {
+        // Null or an exceptional completion both mean the backend could not answer
+        CompletableFuture<SearchPage> fetch(int offset, int limit);
+    }
+
+    private final PageSource source;
+    private final ArrayList<SongDTO> rows = new ArrayList<>();   // null = not loaded yet
+    private final Set<Integer> requested = new HashSet<>();      // page numbers asked for
+    private int generation = 0;     // bumped by every edit and reload
+    private boolean loaded = false; // total known
+
+    public PagedSongListModel(PageSource source) {
+        this.source = source;
+    }
+
+    // ==================== LIST MODEL ====================
+
+    @Override
+    public int getSize() {
+        return rows.size();
+    }
+
+    @Override
+    public SongDTO getElementAt(int index) {
+        SongDTO song = rows.get(index);
+        if (song == null) requestPage(index / PAGE_SIZE);
+        return song;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // ==================== EDITS ====================
+
+    // Fetches the total and the first page again; rows load lazily after that
+    public void reload() {
+        generation++;
+        requested.clear();
+        int gen = generation;
+        source.fetch(0, PAGE_SIZE).whenComplete((page, err) ->
+                SwingUtilities.invokeLater(() -> applyReload(gen, err == null ? page : null)));
+    }
+
+    // Removes the row showing `song` once the backend has removed it;
+    // `hint` is where it was when the user acted, checked first
+    public void remove(int hint, SongDTO song) {
+        if (hint >= 0 && hint < rows.size() && rows.get(hint) == song) {
+            remove(hint);
+            return;
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i) == song) {
+                remove(i);
+                return;
+            }
+        }
+    }
+
+    // The backend has already removed this row
+    public void remove(int index) {
+        if (index < 0 || index >= rows.size()) return;
+        rows.remove(index);
+        generation++;
+        requested.clear();
+        fireIntervalRemoved(this, index, index);
+    }
+
+    // ==================== PAGING ====================
+
+    private void requestPage(int pageNumber) {
+        if (!loaded || !requested.add(pageNumber)) return;
+        int gen = generation;
+        source.fetch(pageNumber * PAGE_SIZE, PAGE_SIZE).whenComplete((page, err) ->
+                SwingUtilities.invokeLater(() -> applyPage(gen, pageNumber, err == null ? page : null)));
+    }
+
+    private void applyReload(int gen, SearchPage page) {
+        if (gen != generation) return;
+
+        int oldSize = rows.size();
+        rows.clear();
+        if (oldSize > 0) fireIntervalRemoved(this, 0, oldSize - 1);
+
+        loaded = true;
+        if (page == null) {
+            fireContentsChanged(this, -1, -1);
+            return;
+        }
+        rows.addAll(Collections.nCopies(page.total, null));
+        fill(page);
+        requested.add(0);
+        if (page.total > 0) fireIntervalAdded(this, 0, page.total - 1);
+        else fireContentsChanged(this, -1, -1);
+    }
+
+    private void applyPage(int gen, int pageNumber, SearchPage page) {
+        int first = pageNumber * PAGE_SIZE;
+        int last = Math.min(rows.size(), first + PAGE_SIZE) - 1;
+
+        if (gen != generation) {
+            // offsets moved since the request; repainting asks again
+            if (first <= last) fireContentsChanged(this, first, last);
+            return;
+        }
+        if (page == null) return;   // stays a placeholder; the page is not retried
+        if (page.total != rows.size()) {
+            // changed elsewhere (e.g. from the player), so start over
+            reload();
+            return;
+        }
+        fill(page);
+        if (first <= last) fireContentsChanged(this, first, last);
+    }
+
+    private void fill(SearchPage page) {
+        for (int i = 0; i < page.songs.size() && page.offset + i < rows.size(); i++) {
+            rows.set(page.offset + i, page.songs.get(i));
+        }
+    }
+}
@@ -37,19 +37,6 @@ public class PlaylistUI extends JFrame {
         title.setForeground(TEXT);
         add(title);
 
-        // Load existing playlists from backend
-        try {
-            List<String> pls = BackendBridge.getPlaylists();
-            for (String line : pls) {
-                if (line == null || line.isEmpty()) continue;
-                int comma = line.indexOf(',');
-                if (comma <= 0) continue;
-                int id = Integer.parseInt(line.substring(0, comma));
-                String name = line.substring(comma + 1);
-                playlists.put(id, name);
-            }
-        } catch (Exception ignored) {}
-
         // Create playlist button
         JButton createBtn = new JButton("+ New Playlist");
         createBtn.setBounds(650, 25, 200, 36);
@@ -64,15 +51,10 @@ public class PlaylistUI extends JFrame {
         addLabel.setFont(new Font("Segoe UI", Font.BOLD, 13));
         add(addLabel);
 
-        // Dropdown for song selection
-        List<SongDTO> allSongs = BackendBridge.getAllSongs();
-        String[] songOptions = new String[allSongs.size()];
-        for (int i = 0; i < allSongs.size(); i++) {
-            SongDTO song = allSongs.get(i);
-            songOptions[i] = song.songId + ": " + song.title + " - " + song.artist;
-        }
-
-        JComboBox<String> songDropdown = new JComboBox<>(songOptions);
+        // Dropdown for song selection, filled once the catalog arrives
+        List<SongDTO> allSongs = new ArrayList<>();
+        JComboBox<String> songDropdown = new JComboBox<>(new String[] {"Loading songs…"});
+        songDropdown.setEnabled(false);
         songDropdown.setBounds(80, 105, 400, 30);
         songDropdown.setBackground(SURFACE);
         songDropdown.setForeground(TEXT);
@@ -89,17 +71,31 @@ public class PlaylistUI extends JFrame {
             }
             if (songDropdown.getSelectedIndex() >= 0) {
                 SongDTO selectedSong = allSongs.get(songDropdown.getSelectedIndex());
-                boolean success = BackendBridge.addToPlaylist(selectedPlaylistId, selectedSong.songId);
-                if (success) {
-                    JOptionPane.showMessageDialog(this, "Song added to playlist!");
-                    songDropdown.setSelectedIndex(0);
-                } else {
-                    JOptionPane.showMessageDialog(this, "Failed to add song", "Error", JOptionPane.ERROR_MESSAGE);
-                }
+                addSongBtn.setEnabled(false);
+                BackendClient.addToPlaylist(selectedPlaylistId, selectedSong.songId).whenComplete((success, err) -> {
+                    addSongBtn.setEnabled(true);
+                    if (err == null && success) {
+                        JOptionPane.showMessageDialog(this, "Song added to playlist!");
+                        songDropdown.setSelectedIndex(0);
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Failed to add song", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                });
             }
         });
+        addSongBtn.setEnabled(false);
         add(addSongBtn);
 
+        BackendClient.catalog().thenAccept(songs -> {
+            allSongs.addAll(songs);
+            songDropdown.removeAllItems();
+            for (SongDTO song : songs) {
+                songDropdown.addItem(song.songId + ": " + song.title + " - " + song.artist);
+            }
+            songDropdown.setEnabled(true);
+            addSongBtn.setEnabled(true);
+        });
+
         listPanel = new JPanel(null);
         listPanel.setBackground(BG);
 
@@ -109,7 +105,14 @@ public class PlaylistUI extends JFrame {
         scroll.getViewport().setBackground(BG);
         add(scroll);
 
-        refreshUI();
+        // Load existing playlists from backend
+        JLabel loadingLabel = new JLabel("Loading playlists…");
+        loadingLabel.setBounds(20, 15, 300, 30);
+        loadingLabel.setForeground(new Color(0xA2A2A8));
+        loadingLabel.setFont(new Font("Segoe UI", Font.ITALIC, 16));
+        listPanel.add(loadingLabel);
+        loadPlaylists();
+
         setVisible(true);
     }
 
@@ -127,27 +130,34 @@ public class PlaylistUI extends JFrame {
 
         int pid = (int) (System.currentTimeMillis() / 1000);
 
-        boolean ok = BackendBridge.createPlaylist(pid, name);
-        if (!ok) {
-            JOptionPane.showMessageDialog(this, "Failed to create playlist");
-            return;
-        }
-
-        // refresh from backend
-        playlists.clear();
-        try {
-            List<String> pls = BackendBridge.getPlaylists();
-            for (String line : pls) {
-                if (line == null || line.isEmpty()) continue;
-                int comma = line.indexOf(',');
-                if (comma <= 0) continue;
-                int id = Integer.parseInt(line.substring(0, comma));
-                String pname = line.substring(comma + 1);
-                playlists.put(id, pname);
+        BackendClient.createPlaylist(pid, name).whenComplete((ok, err) -> {
+            if (err != null || !ok) {
+                JOptionPane.showMessageDialog(this, "Failed to create playlist");
+                return;
             }
-        } catch (Exception ignored) {}
 
-        refreshUI();
+            // refresh from backend
+            loadPlaylists();
+        });
+    }
+
+    // Fetches the playlist list off the EDT and redraws it when it arrives
+    private void loadPlaylists() {
+        BackendClient.getPlaylists()
+                .handle((pls, err) -> err == null ? pls : List.<String>of())
+                .thenAccept(pls -> {
+                    playlists.clear();
+                    for (String line : pls) {
+                        if (line == null || line.isEmpty()) continue;
+                        int comma = line.indexOf(',');
+                        if (comma <= 0) continue;
+                        try {
+                            int id = Integer.parseInt(line.substring(0, comma));
+                            playlists.put(id, line.substring(comma + 1));
+                        } catch (NumberFormatException ignored) {}
+                    }
+                    refreshUI();
+                });
     }
 
     private void refreshUI() {
@@ -7,6 +7,8 @@ public class RecommendationPage extends JFrame {
     private JPanel recPanel;
     private int baseSongId;
 
+    private static final int PAGE_SIZE = 20;
+
     // baseSongId = song used for recommendation
     public RecommendationPage(int baseSongId) {
         this.baseSongId = baseSongId;
@@ -39,7 +41,20 @@ public class RecommendationPage extends JFrame {
     private void loadRecommendations() {
         recPanel.removeAll();
 
-        List<SongDTO> recs = BackendBridge.recommend(baseSongId);
+        JLabel loading = new JLabel("Loading recommendations…");
+        loading.setForeground(new Color(0xA2A2A8));
+        loading.setFont(new Font("Segoe UI", Font.ITALIC, 16));
+        loading.setAlignmentX(Component.CENTER_ALIGNMENT);
+        recPanel.add(Box.createVerticalStrut(40));
+        recPanel.add(loading);
+
+        BackendClient.recommend(baseSongId, PAGE_SIZE)
+                .handle((recs, err) -> err == null ? recs : List.<SongDTO>of())
+                .thenAccept(this::showRecommendations);
+    }
+
+    private void showRecommendations(List<SongDTO> recs) {
+        recPanel.removeAll();
 
         if (recs.isEmpty()) {
             JLabel empty = new JLabel("No recommendations available");
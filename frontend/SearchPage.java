@@ -0,0 +1,18 @@
+import java.util.List;
+
+/*
+ * SearchPage
+ * One page of a long song list (ranked SEARCH results, a playlist, the
+ * favorites) plus the total number of rows in the list.
+ */
+public class SearchPage {
+    public int total;
+    public int offset;
+    public List<SongDTO> songs;
+
+    public SearchPage(int total, int offset, List<SongDTO> songs) {
+        this.total = total;
+        this.offset = offset;
+        this.songs = songs;
+    }
+}
@@ -78,19 +78,17 @@ public class SignupUI extends JFrame {
         return;
     }
 
-    new Thread(() -> {                 // prevent GUI freeze
-        boolean ok = BackendBridge.signupFull(full, user, pass);
-
-        SwingUtilities.invokeLater(() -> {
-            if(ok){
-                JOptionPane.showMessageDialog(this,"Account Created Successfully");
-                dispose();
-                new LoginUI().setVisible(true);
-            } else {
-                JOptionPane.showMessageDialog(this,"Username already exists");
-            }
-        });
-    }).start();
+    signup.setEnabled(false);
+    BackendClient.signupFull(full, user, pass).whenComplete((ok, err) -> {   // prevent GUI freeze
+        signup.setEnabled(true);
+        if(err == null && ok){
+            JOptionPane.showMessageDialog(this,"Account Created Successfully");
+            dispose();
+            new LoginUI().setVisible(true);
+        } else {
+            JOptionPane.showMessageDialog(this,"Username already exists");
+        }
+    });
 });
 
     setVisible(true);
@@ -0,0 +1,91 @@
+import java.util.*;
+import java.util.concurrent.CompletionException;
+
+/*
+ * SongCatalog
+ * Shared in-process copy of the backend catalog.
+ *
+ * The full song list is fetched once with GET_ALL and served from memory
+ * afterwards. Before reusing it the cache asks the backend for its
+ * CATALOG_VERSION (at most every CHECK_INTERVAL_MS) and only re-fetches
+ * when that changed, e.g. after SongScanner rewrote songs.csv.
+ * The search index is built lazily from the same list and dropped with it.
+ */
+public class SongCatalog {
+
+    private static final long CHECK_INTERVAL_MS = 2000;
+
+    private static List<SongDTO> songs = List.of();
+    private static Map<Integer, SongDTO> byId = Map.of();
+    private static SongSearchIndex searchIndex = null;
+    private static String version = null;
+    private static long lastCheck = 0;
+
+    // ==================== ACCESS ====================
+
+    public static synchronized List<SongDTO> getAll() {
+        refreshIfStale();
+        return songs;
+    }
+
+    public static synchronized SongDTO getSong(int songId) {
+        refreshIfStale();
+        return byId.get(songId);
+    }
+
+    // Index over the current catalog; built on first use, so call it off the EDT
+    public static SongSearchIndex getSearchIndex() {
+        List<SongDTO> current;
+        synchronized (SongCatalog.class) {
+            refreshIfStale();
+            if (searchIndex != null) return searchIndex;
+            current = songs;
+        }
+
+        // built outside the lock so getAll() on the EDT never waits for it
+        SongSearchIndex built = new SongSearchIndex(current);
+        synchronized (SongCatalog.class) {
+            if (songs == current) searchIndex = built;
+        }
+        return built;
+    }
+
+    // Makes the next access re-check the backend version right away
+    public static synchronized void invalidate() {
+        lastCheck = 0;
+    }
+
+    // ==================== REFRESH ====================
+
+    private static void refreshIfStale() {
+        long now = System.currentTimeMillis();
+        if (version != null && now - lastCheck < CHECK_INTERVAL_MS) return;
+        lastCheck = now;
+
+        try {
+            // asked before GET_ALL (the two may go to different processes),
+            // so the list fetched below is at least this new
+            String current = BackendBridge.getCatalogVersionAsync().join();
+            if (version != null && (version.equals(current) || "ERROR".equals(current))) return;
+
+            List<SongDTO> fresh;
+            try {
+                fresh = BackendBridge.getAllSongsAsync().join();
+            } catch (CompletionException e) {
+                // keep the cached list; no version, so the next access fetches again
+                version = null;
+                return;
+            }
+
+            Map<Integer, SongDTO> index = new HashMap<>(fresh.size() * 2);
+            for (SongDTO s : fresh) index.put(s.songId, s);
+
+            songs = Collections.unmodifiableList(fresh);
+            byId = index;
+            searchIndex = null;
+            version = "ERROR".equals(current) ? null : current;
+        } catch (RuntimeException e) {
+            // backend unavailable: keep serving whatever is cached
+        }
+    }
+}
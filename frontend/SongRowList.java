@@ -0,0 +1,150 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.function.ObjIntConsumer;
+
+/*
+ * SongRowList
+ * "Title — Artist  [Play] [Remove]" rows over a PagedSongListModel.
+ *
+ * Every row is painted by one shared renderer, so the list holds the same
+ * few components whether it shows ten songs or thousands. The Play and
+ * Remove buttons are painted too; clicks are mapped to them by position.
+ */
+public class SongRowList extends JList<SongDTO> {
+
+    private static final int ROW_HEIGHT = 50;
+    private static final int ROW_GAP = 10;
+
+    private final PagedSongListModel model;
+    private final int rowWidth;
+    private final String emptyText;
+    private final Color subtext;
+    private final Rectangle playBounds;
+    private final Rectangle removeBounds;
+
+    public SongRowList(PagedSongListModel model, int rowWidth, Color background, Color rowColor,
+                       Color text, Color subtext, int fontSize, String emptyText,
+                       ObjIntConsumer<SongDTO> onPlay, ObjIntConsumer<SongDTO> onRemove) {
+        super(model);
+        this.model = model;
+        this.rowWidth = rowWidth;
+        this.emptyText = emptyText;
+        this.subtext = subtext;
+        this.playBounds = new Rectangle(rowWidth - 210, 10, 70, 30);
+        this.removeBounds = new Rectangle(rowWidth - 130, 10, 100, 30);
+
+        setBackground(background);
+        setFixedCellHeight(ROW_HEIGHT + ROW_GAP);
+        setFixedCellWidth(rowWidth);
+        setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        setCellRenderer(new Renderer(rowColor, text, fontSize));
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = rowAt(e.getPoint());
+                if (index < 0) return;
+                SongDTO song = model.getElementAt(index);
+                if (song == null) return;
+
+                Point p = toCell(index, e.getPoint());
+                if (playBounds.contains(p)) onPlay.accept(song, index);
+                else if (removeBounds.contains(p)) onRemove.accept(song, index);
+            }
+
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                int index = rowAt(e.getPoint());
+                Point p = index < 0 ? null : toCell(index, e.getPoint());
+                boolean onButton = p != null && (playBounds.contains(p) || removeBounds.contains(p));
+                setCursor(Cursor.getPredefinedCursor(onButton ? Cursor.HAND_CURSOR : Cursor.DEFAULT_CURSOR));
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+    }
+
+    // Row under p, or -1 below the last row
+    private int rowAt(Point p) {
+        int index = locationToIndex(p);
+        if (index < 0 || !getCellBounds(index, index).contains(p)) return -1;
+        return index;
+    }
+
+    private Point toCell(int index, Point p) {
+        Rectangle cell = getCellBounds(index, index);
+        return new Point(p.x - cell.x, p.y - cell.y);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (model.getSize() > 0 || !model.isLoaded()) return;
+
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setColor(subtext);
+        g2.setFont(new Font("Segoe UI", Font.ITALIC, 18));
+        g2.drawString(emptyText, 20, 20 + g2.getFontMetrics().getAscent());
+        g2.dispose();
+    }
+
+    // ==================== RENDERER ====================
+
+    // One stamp shared by every row; a null song is a row still loading
+    private class Renderer extends JPanel implements ListCellRenderer<SongDTO> {
+        private final Color rowColor;
+        private final JLabel name = new JLabel();
+        private final JLabel play = createButtonLabel("Play", new Color(0x525252));
+        private final JLabel remove = createButtonLabel("Remove", new Color(0xFF3B30));
+        private final Color text;
+
+        Renderer(Color rowColor, Color text, int fontSize) {
+            super(null);
+            this.rowColor = rowColor;
+            this.text = text;
+            setOpaque(false);
+
+            name.setBounds(20, 10, rowWidth - 240, 30);
+            name.setFont(new Font("Segoe UI", Font.PLAIN, fontSize));
+            add(name);
+
+            play.setBounds(playBounds);
+            add(play);
+            remove.setBounds(removeBounds);
+            add(remove);
+        }
+
+        private JLabel createButtonLabel(String label, Color background) {
+            JLabel button = new JLabel(label, SwingConstants.CENTER);
+            button.setOpaque(true);
+            button.setBackground(background);
+            button.setForeground(Color.WHITE);
+            button.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+            return button;
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends SongDTO> list, SongDTO song,
+                                                      int index, boolean isSelected, boolean cellHasFocus) {
+            if (song == null) {
+                name.setText("Loading…");
+                name.setForeground(subtext);
+            } else {
+                name.setText(song.title + " — " + song.artist);
+                name.setForeground(text);
+            }
+            play.setVisible(song != null);
+            remove.setVisible(song != null);
+            return this;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            g.setColor(rowColor);
+            g.fillRect(0, 0, rowWidth, ROW_HEIGHT);
+        }
+    }
+}
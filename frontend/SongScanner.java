@@ -2,6 +2,7 @@ import com.mpatric.mp3agic.*;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 public class SongScanner {
 
@@ -12,12 +13,25 @@ public class SongScanner {
     private static final String CSV_OUT =
             "C:/Users/PMLS/Desktop/Music Streaming Platform/songs.csv";
 
+    // path / size / mtime / id of every scanned file, so rescans only
+    // re-extract files that changed and IDs stay stable
+    private static final String MANIFEST =
+            "C:/Users/PMLS/Desktop/Music Streaming Platform/scan_manifest.tsv";
+
     public static void runScan() throws Exception {
+        runScan(false, Runtime.getRuntime().availableProcessors());
+    }
 
+    public static void runScan(boolean fullRescan, int threads) throws Exception {
+
+        long startNanos = System.nanoTime();
         Files.createDirectories(Paths.get(COVERS_DIR));
 
-        List<String> lines = new ArrayList<>();
-        lines.add("songID,title,artist,genre,duration,path,imagePath");
+        Manifest manifest = loadManifest();
+        if (manifest.entries.isEmpty()) {
+            // first incremental run: keep the IDs of an existing songs.csv
+            seedIdsFromCsv(manifest);
+        }
 
         File dir = new File(SONGS_DIR);
         File[] files = dir.listFiles((d, name) -> {
@@ -26,25 +40,74 @@ public class SongScanner {
         });
 
         if (files == null) files = new File[0];
+        Arrays.sort(files);     // deterministic ID assignment for new files
 
-        int songIdCounter = 1;
+        List<SongMeta> result = new ArrayList<>();
+        List<File> changed = new ArrayList<>();
+        List<SongMeta> previous = new ArrayList<>();    // manifest entry per changed file, or null
 
-        for (File f : files) {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+        List<Future<SongMeta>> pending = new ArrayList<>();
 
-            SongMeta meta = extract(f);
-            if (meta == null) continue;
+        for (File f : files) {
+            String path = f.getAbsolutePath().replace("\\", "/");
+            SongMeta old = manifest.entries.get(path);
+            if (old != null && old.title != null && !fullRescan
+                    && old.size == f.length() && old.mtime == f.lastModified()) {
+                result.add(old);
+                continue;
+            }
 
-            int songID = songIdCounter++;
+            // changed files keep their ID, new files get the next free one
+            int songID = (old != null) ? old.id : manifest.nextId++;
+            changed.add(f);
+            previous.add(old);
+            pending.add(pool.submit(() -> extractWithCover(f, songID)));
+        }
 
-            // write cover if present
-            if (meta.albumImage != null && meta.albumImage.length > 0) {
-                String imgPath = COVERS_DIR + "/" + songID + ".jpg";
-                Files.write(Paths.get(imgPath), meta.albumImage);
-                meta.imagePath = imgPath;
+        // A known file that fails to extract keeps its manifest entry, so
+        // its ID survives until it reads again; only files that are gone
+        // from the folder lose theirs. Its old size/mtime make the next
+        // scan retry it.
+        List<SongMeta> kept = new ArrayList<>();
+        long bytesScanned = 0;
+        try {
+            for (int i = 0; i < changed.size(); i++) {
+                SongMeta meta = pending.get(i).get();
+                bytesScanned += changed.get(i).length();
+                if (meta != null) {
+                    result.add(meta);
+                } else if (previous.get(i) != null) {
+                    SongMeta old = previous.get(i);
+                    kept.add(old);
+                    // still listed with its last good metadata, if it had any
+                    if (old.title != null && !old.title.isEmpty()) result.add(old);
+                }
             }
+        } finally {
+            pool.shutdown();
+        }
+
+        result.sort(Comparator.comparingInt(m -> m.id));
+
+        List<SongMeta> manifestEntries = new ArrayList<>(result);
+        for (SongMeta old : kept) {
+            if (!manifestEntries.contains(old)) manifestEntries.add(old);
+        }
+        manifestEntries.sort(Comparator.comparingInt(m -> m.id));
 
+        // songs whose file left the folder take their cover with them
+        Set<Integer> liveIds = new HashSet<>();
+        for (SongMeta m : manifestEntries) liveIds.add(m.id);
+        for (SongMeta old : manifest.entries.values()) {
+            if (!liveIds.contains(old.id)) deleteCover(old.id);
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add("songID,title,artist,genre,duration,path,imagePath");
+        for (SongMeta meta : result) {
             String csvLine =
-                    songID + "," +
+                    meta.id + "," +
                     escapeCsv(meta.title) + "," +
                     escapeCsv(meta.artist) + "," +
                     escapeCsv(meta.genre) + "," +
@@ -56,7 +119,104 @@ public class SongScanner {
         }
 
         Files.write(Paths.get(CSV_OUT), lines);
-        System.out.println("Song scan + CSV creation DONE.");
+        saveManifest(manifestEntries, manifest.nextId);
+
+        double secs = Math.max(1e-9, (System.nanoTime() - startNanos) / 1e9);
+        System.out.printf(
+                "Song scan + CSV creation DONE. %d files, %d re-extracted, %d unchanged%n",
+                files.length, changed.size(), files.length - changed.size());
+        System.out.printf(
+                "Scan took %.2fs (%.1f files/s, %.1f MB/s extracted, %d threads)%n",
+                secs, changed.size() / secs, bytesScanned / 1e6 / secs, Math.max(1, threads));
+    }
+
+    // ==================== MANIFEST ====================
+
+    private static class Manifest {
+        Map<String, SongMeta> entries = new HashMap<>();
+        int nextId = 1;
+    }
+
+    // Format: "#nextId=<n>" header, then one tab-separated line per file:
+    // id, size, mtime, duration, title, artist, genre, imagePath, path
+    private static Manifest loadManifest() {
+        Manifest manifest = new Manifest();
+
+        Path p = Paths.get(MANIFEST);
+        if (!Files.exists(p)) return manifest;
+
+        try {
+            for (String line : Files.readAllLines(p)) {
+                if (line.startsWith("#nextId=")) {
+                    manifest.nextId = Math.max(manifest.nextId,
+                            Integer.parseInt(line.substring(8).trim()));
+                    continue;
+                }
+                String[] f = line.split("\t", -1);
+                if (f.length < 9) continue;
+
+                SongMeta m = new SongMeta();
+                m.id = Integer.parseInt(f[0]);
+                m.size = Long.parseLong(f[1]);
+                m.mtime = Long.parseLong(f[2]);
+                m.duration = Integer.parseInt(f[3]);
+                m.title = f[4];
+                m.artist = f[5];
+                m.genre = f[6];
+                m.imagePath = f[7];
+                m.path = f[8];
+                manifest.entries.put(m.path, m);
+                manifest.nextId = Math.max(manifest.nextId, m.id + 1);
+            }
+        } catch (Exception ex) {
+            System.out.println("Ignoring unreadable scan manifest -> " + ex.getMessage());
+            return new Manifest();
+        }
+        return manifest;
+    }
+
+    private static void saveManifest(List<SongMeta> songs, int nextId) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("#nextId=" + nextId);
+        for (SongMeta m : songs) {
+            lines.add(m.id + "\t" + m.size + "\t" + m.mtime + "\t" + m.duration + "\t"
+                    + escapeTsv(m.title) + "\t" + escapeTsv(m.artist) + "\t"
+                    + escapeTsv(m.genre) + "\t" + escapeTsv(m.imagePath) + "\t"
+                    + escapeTsv(m.path));
+        }
+
+        // write-then-rename so a crash never leaves a truncated manifest
+        Path tmp = Paths.get(MANIFEST + ".tmp");
+        Files.write(tmp, lines);
+        Files.move(tmp, Paths.get(MANIFEST), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Maps path -> id from a songs.csv written before manifests existed.
+    // Entries carry no metadata, so the files are re-extracted once.
+    private static void seedIdsFromCsv(Manifest manifest) {
+        Path p = Paths.get(CSV_OUT);
+        if (!Files.exists(p)) return;
+
+        try {
+            List<String> lines = Files.readAllLines(p);
+            for (int i = 1; i < lines.size(); i++) {
+                String[] f = lines.get(i).split(",", -1);
+                if (f.length < 6) continue;
+
+                SongMeta m = new SongMeta();
+                m.id = Integer.parseInt(f[0].trim());
+                m.path = f[5];
+                manifest.entries.put(m.path, m);
+                manifest.nextId = Math.max(manifest.nextId, m.id + 1);
+            }
+        } catch (Exception ex) {
+            System.out.println("Could not read existing IDs from songs.csv -> " + ex.getMessage());
+        }
+    }
+
+    private static String escapeTsv(String s) {
+        if (s == null) return "";
+        return s.replace("\t", " ").replace("\n", " ").replace("\r", " ");
     }
 
     private static String escapeCsv(String s) {
@@ -66,6 +226,40 @@ public class SongScanner {
                 .replace(",", " ");
     }
 
+    // Runs on a scan worker; the cover is written here so album art
+    // bytes never pile up waiting for the collecting thread
+    private static SongMeta extractWithCover(File f, int songID) throws IOException {
+        SongMeta meta = extract(f);
+        if (meta == null) return null;
+
+        meta.id = songID;
+        meta.size = f.length();
+        meta.mtime = f.lastModified();
+
+        // write cover if present; a file whose art was removed loses the old one
+        if (meta.albumImage != null && meta.albumImage.length > 0) {
+            String imgPath = coverPath(songID);
+            Files.write(Paths.get(imgPath), meta.albumImage);
+            meta.imagePath = imgPath;
+        } else {
+            deleteCover(songID);
+        }
+        meta.albumImage = null;
+        return meta;
+    }
+
+    private static String coverPath(int songID) {
+        return COVERS_DIR + "/" + songID + ".jpg";
+    }
+
+    private static void deleteCover(int songID) {
+        try {
+            Files.deleteIfExists(Paths.get(coverPath(songID)));
+        } catch (IOException ex) {
+            System.out.println("Could not delete stale cover " + songID + ".jpg -> " + ex.getMessage());
+        }
+    }
+
     private static SongMeta extract(File f) {
 
         try {
@@ -132,6 +326,9 @@ public class SongScanner {
     }
 
     private static class SongMeta {
+        int id;
+        long size;
+        long mtime;
         String title;
         String artist;
         String genre;
@@ -141,8 +338,15 @@ public class SongScanner {
         String imagePath;
     }
 
-    // quick test
+    // quick test: [--full] [--threads N]
     public static void main(String[] args) throws Exception {
-        runScan();
+        boolean full = false;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--full")) full = true;
+            else if (args[i].equals("--threads") && i + 1 < args.length)
+                threads = Integer.parseInt(args[++i]);
+        }
+        runScan(full, threads);
     }
 }
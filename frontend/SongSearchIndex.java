@@ -0,0 +1,193 @@
+import java.text.Normalizer;
+import java.util.*;
+import java.util.function.BooleanSupplier;
+
+/*
+ * SongSearchIndex
+ * Immutable token index over a song list for type-ahead search.
+ *
+ * Titles, artists and genres are normalized (lower case, accents removed)
+ * and split into word tokens. Distinct tokens are kept in one sorted array
+ * with a posting list of song positions per token, so a query word is
+ * matched as a prefix with a binary search plus a scan of the adjacent
+ * range. Every query word must match some token of the song; hits in the
+ * title outrank artist and genre hits, and whole-word hits outrank prefix
+ * hits.
+ */
+public class SongSearchIndex {
+
+    private static final int FIELD_TITLE = 1;
+    private static final int FIELD_ARTIST = 2;
+    private static final int FIELD_GENRE = 4;
+
+    private final List<SongDTO> songs;
+    private final String[] terms;       // sorted, distinct
+    private final int[][] postings;     // song positions per term, ascending
+    private final byte[][] fields;      // FIELD_* mask per posting
+
+    public SongSearchIndex(List<SongDTO> songs) {
+        this.songs = songs;
+
+        // term -> (song position -> field mask)
+        TreeMap<String, LinkedHashMap<Integer, Integer>> build = new TreeMap<>();
+        for (int i = 0; i < songs.size(); i++) {
+            SongDTO s = songs.get(i);
+            addField(build, i, s.title, FIELD_TITLE);
+            addField(build, i, s.artist, FIELD_ARTIST);
+            addField(build, i, s.genre, FIELD_GENRE);
+        }
+
+        terms = new String[build.size()];
+        postings = new int[build.size()][];
+        fields = new byte[build.size()][];
+
+        int t = 0;
+        for (Map.Entry<String, LinkedHashMap<Integer, Integer>> e : build.entrySet()) {
+            Map<Integer, Integer> hits = e.getValue();
+            int[] ids = new int[hits.size()];
+            byte[] mask = new byte[hits.size()];
+            int k = 0;
+            for (Map.Entry<Integer, Integer> h : hits.entrySet()) {
+                ids[k] = h.getKey();
+                mask[k] = (byte) (int) h.getValue();
+                k++;
+            }
+            terms[t] = e.getKey();
+            postings[t] = ids;
+            fields[t] = mask;
+            t++;
+        }
+    }
+
+    private static void addField(TreeMap<String, LinkedHashMap<Integer, Integer>> build,
+                                 int song, String text, int field) {
+        for (String token : tokenize(text)) {
+            build.computeIfAbsent(token, k -> new LinkedHashMap<>())
+                 .merge(song, field, (a, b) -> a | b);
+        }
+    }
+
+    // ==================== NORMALIZATION ====================
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) return tokens;
+
+        String norm = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+
+        int start = -1;
+        for (int i = 0; i <= norm.length(); i++) {
+            boolean word = i < norm.length() && Character.isLetterOrDigit(norm.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(norm.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // ==================== QUERY ====================
+
+    public int size() {
+        return songs.size();
+    }
+
+    // Best matches first; null when cancelled part-way
+    public List<SongDTO> search(String query, int limit, BooleanSupplier cancelled) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) return List.of();
+
+        int n = songs.size();
+        int[] total = new int[n];
+        int[] matchedWords = new int[n];
+        int[] wordScore = new int[n];
+        int[] stamp = new int[n];
+
+        for (int w = 0; w < words.size(); w++) {
+            String word = words.get(w);
+            int mark = w + 1;
+
+            // every term starting with the word is adjacent in the sorted array
+            for (int t = lowerBound(word); t < terms.length && terms[t].startsWith(word); t++) {
+                if (cancelled.getAsBoolean()) return null;
+
+                boolean exact = terms[t].length() == word.length();
+                int[] ids = postings[t];
+                byte[] mask = fields[t];
+                for (int k = 0; k < ids.length; k++) {
+                    int song = ids[k];
+                    if (w > 0 && matchedWords[song] < w) continue;    // missed an earlier word
+                    int score = fieldScore(mask[k]) * (exact ? 2 : 1);
+                    if (stamp[song] != mark) {
+                        stamp[song] = mark;
+                        wordScore[song] = score;
+                        matchedWords[song] = w + 1;
+                    } else if (score > wordScore[song]) {
+                        wordScore[song] = score;
+                    }
+                }
+            }
+
+            // fold this word's best score into the running total
+            for (int song = 0; song < n; song++) {
+                if (stamp[song] == mark) total[song] += wordScore[song];
+            }
+        }
+
+        // ranking order: score, then shorter title, then catalog order
+        Comparator<Integer> better = (a, b) -> {
+            if (total[a] != total[b]) return Integer.compare(total[b], total[a]);
+            int la = titleLength(a);
+            int lb = titleLength(b);
+            if (la != lb) return Integer.compare(la, lb);
+            return Integer.compare(a, b);
+        };
+
+        // keep only the best `limit` hits; the heap's head is the weakest
+        int wanted = words.size();
+        PriorityQueue<Integer> top = new PriorityQueue<>(Math.max(1, limit), better.reversed());
+        for (int song = 0; song < n; song++) {
+            if (matchedWords[song] != wanted) continue;
+            if (top.size() < limit) {
+                top.add(song);
+            } else if (better.compare(song, top.peek()) < 0) {
+                top.poll();
+                top.add(song);
+            }
+        }
+        if (cancelled.getAsBoolean()) return null;
+
+        List<Integer> ranked = new ArrayList<>(top);
+        ranked.sort(better);
+
+        List<SongDTO> result = new ArrayList<>(ranked.size());
+        for (int song : ranked) result.add(songs.get(song));
+        return result;
+    }
+
+    private int titleLength(int song) {
+        String t = songs.get(song).title;
+        return t == null ? 0 : t.length();
+    }
+
+    private static int fieldScore(int mask) {
+        if ((mask & FIELD_TITLE) != 0) return 3;
+        if ((mask & FIELD_ARTIST) != 0) return 2;
+        return 1;
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = terms.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (terms[mid].compareTo(key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
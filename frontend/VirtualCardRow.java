@@ -0,0 +1,186 @@
+import javax.swing.*;
+import javax.swing.event.ChangeListener;
+import java.awt.*;
+import java.util.*;
+import java.util.List;
+import java.util.function.Supplier;
+
+/*
+ * VirtualCardRow
+ * Horizontally scrolling strip of song cards that only builds what is seen.
+ *
+ * Songs are laid out in columns of `rows` cards. Only the columns that
+ * intersect the viewport, plus OVERSCAN columns on either side, hold live
+ * cards; a card that scrolls out is rebound to a song scrolling in. The
+ * number of components (and of covers requested from ArtworkLoader) follows
+ * the viewport width, not the number of songs in the row.
+ *
+ * Place it directly in a JScrollPane.
+ */
+public class VirtualCardRow extends JPanel {
+
+    private static final int OVERSCAN = 2;    // columns kept alive past each edge
+
+    // A reusable card; bind() is called each time it shows another song
+    public abstract static class Card extends JPanel {
+        public abstract void bind(SongDTO song);
+    }
+
+    private final Supplier<Card> factory;
+    private final int cardWidth;
+    private final int cardHeight;
+    private final int gap;
+    private final int rows;
+    private final int rowGap;
+
+    private final List<SongDTO> songs = new ArrayList<>();
+    private final Map<Integer, Card> active = new HashMap<>();    // song index -> card
+    private final ArrayDeque<Card> spare = new ArrayDeque<>();
+    private String emptyText = null;
+
+    // Scrolling and resizing both fire on the enclosing viewport
+    private final ChangeListener viewportListener = e -> updateVisibleCards();
+    private JViewport viewport;
+
+    public VirtualCardRow(Supplier<Card> factory, int cardWidth, int cardHeight,
+                          int gap, int rows, int rowGap) {
+        super(null);
+        this.factory = factory;
+        this.cardWidth = cardWidth;
+        this.cardHeight = cardHeight;
+        this.gap = gap;
+        this.rows = Math.max(1, rows);
+        this.rowGap = rowGap;
+    }
+
+    // ==================== CONTENT ====================
+
+    public void setSongs(List<SongDTO> list) {
+        releaseAll();
+        songs.clear();
+        songs.addAll(list);
+        contentChanged();
+    }
+
+    public void addSongs(List<SongDTO> list) {
+        if (list.isEmpty()) return;
+        songs.addAll(list);
+        contentChanged();
+    }
+
+    public int getSongCount() {
+        return songs.size();
+    }
+
+    // Shown instead of cards while the row is empty
+    public void setEmptyText(String text) {
+        emptyText = text;
+        repaint();
+    }
+
+    private void contentChanged() {
+        revalidate();
+        updateVisibleCards();
+        repaint();
+    }
+
+    // ==================== LAYOUT ====================
+
+    private int columns() {
+        return (songs.size() + rows - 1) / rows;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int width = gap + columns() * (cardWidth + gap) + gap;
+        int height = rows * cardHeight + (rows - 1) * rowGap;
+        if (songs.isEmpty() && emptyText != null) width = Math.max(width, 800);
+        return new Dimension(width, height);
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (getParent() instanceof JViewport) {
+            viewport = (JViewport) getParent();
+            viewport.addChangeListener(viewportListener);
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        if (viewport != null) {
+            viewport.removeChangeListener(viewportListener);
+            viewport = null;
+        }
+        super.removeNotify();
+    }
+
+    @Override
+    public void doLayout() {
+        updateVisibleCards();
+    }
+
+    // Binds cards for the columns in view and recycles the rest
+    private void updateVisibleCards() {
+        Rectangle view = getVisibleRect();
+        int stride = cardWidth + gap;
+        int firstColumn = Math.max(0, (view.x - gap) / stride - OVERSCAN);
+        int lastColumn = Math.min(columns() - 1, (view.x + view.width - gap) / stride + OVERSCAN);
+
+        int from = firstColumn * rows;
+        int to = Math.min(songs.size(), (lastColumn + 1) * rows);
+
+        Iterator<Map.Entry<Integer, Card>> it = active.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, Card> entry = it.next();
+            int index = entry.getKey();
+            if (index < from || index >= to) {
+                release(entry.getValue());
+                it.remove();
+            }
+        }
+
+        for (int index = from; index < to; index++) {
+            if (active.containsKey(index)) continue;
+
+            Card card = spare.poll();
+            if (card == null) {
+                card = factory.get();
+                add(card);
+            }
+            card.bind(songs.get(index));
+            card.setBounds(gap + (index / rows) * stride,
+                           (index % rows) * (cardHeight + rowGap),
+                           cardWidth, cardHeight);
+            card.setVisible(true);
+            active.put(index, card);
+        }
+    }
+
+    private void release(Card card) {
+        card.setVisible(false);
+        card.bind(null);
+        spare.push(card);
+    }
+
+    private void releaseAll() {
+        for (Card card : active.values()) release(card);
+        active.clear();
+    }
+
+    // ==================== PAINTING ====================
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (!songs.isEmpty() || emptyText == null) return;
+
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setColor(new Color(0xA2A2A8));
+        g2.setFont(new Font("Segoe UI", Font.PLAIN, 16));
+        g2.drawString(emptyText, gap, 30);
+        g2.dispose();
+    }
+}